@@ -0,0 +1,36 @@
+package com.priti.activityservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    @Value("${user.validation.cache.max-size}")
+    private long userValidationMaxSize;
+
+    @Value("${user.validation.cache.ttl}")
+    private Duration userValidationTtl;
+
+    @Value("${user.validation.cache.negative-ttl}")
+    private Duration userValidationNegativeTtl;
+
+    @Bean
+    public Cache<String, Boolean> userValidationCache(MeterRegistry meterRegistry) {
+        Cache<String, Boolean> cache = Caffeine.newBuilder()
+                .maximumSize(userValidationMaxSize)
+                // Unknown users are kept for a much shorter time so a freshly registered user is not locked out
+                .expireAfter(Expiry.creating((String userId, Boolean valid) ->
+                        valid ? userValidationTtl : userValidationNegativeTtl))
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "userValidationCache");
+    } // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under /actuator/metrics
+}
@@ -1,9 +1,29 @@
 package com.priti.activityservice.config;
 
+import com.priti.activityservice.converter.ActivityMetricsReadingConverter;
+import com.priti.activityservice.converter.ActivityMetricsWritingConverter;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    } // Lets an Activity and its outbox event commit together (needs a replica set, which Atlas always is)
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new ActivityMetricsWritingConverter(),
+                new ActivityMetricsReadingConverter()));
+    } // Compact binary storage for well-known activity metric series
 }
@@ -1,9 +1,15 @@
 package com.priti.activityservice.config;
 
+import com.priti.activityservice.converter.ActivityBinaryMessageConverter;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,11 +27,30 @@ public class RabbitMqConfig {
     @Value("${rabbitmq.queue.name}")
     private String queue;
 
+    @Value("${rabbitmq.queue.max-priority}")
+    private int maxPriority;
+
+    @Value("${rabbitmq.dead-letter.exchange}")
+    private String deadLetterExchange;
+
+    @Value("${rabbitmq.dead-letter.routing-key}")
+    private String deadLetterRoutingKey;
+
+    @Value("${rabbitmq.user.exchange.name}")
+    private String userExchange;
+
+    @Value("${rabbitmq.wire-format}")
+    private String wireFormat;
+
 
     @Bean
     public Queue activityQueue() {
-        return new Queue(queue, true);
-    } //It declares a RabbitMQ queue named "activity-queue" that is durable (i.e., it will survive a broker restart as we have set true).
+        return QueueBuilder.durable(queue)
+                .maxPriority(maxPriority)
+                .deadLetterExchange(deadLetterExchange)
+                .deadLetterRoutingKey(deadLetterRoutingKey)
+                .build();
+    } // Durable priority queue; arguments must match the recommendation-ai-service declaration, so both read the same properties.
 
     @Bean
     public DirectExchange activityExchange() {
@@ -39,8 +64,30 @@ public class RabbitMqConfig {
                 .with(routingKey);
     }
 
+    @Bean
+    public FanoutExchange userEventsExchange() {
+        return new FanoutExchange(userExchange);
+    }
+
+    @Bean
+    public Queue userEventsQueue() {
+        return new AnonymousQueue();
+    } // Exclusive, auto-delete queue per instance so every instance's validation cache receives the user events.
+
+    @Bean
+    public Binding userEventsBinding(Queue userEventsQueue, FanoutExchange userEventsExchange) {
+        return BindingBuilder.bind(userEventsQueue)
+                .to(userEventsExchange);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
-    }// This will do job of converting java object to Json before sending it to the queue. So now we dont have to manually serialize or deserialize.
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ActivityBinaryMessageConverter binary = new ActivityBinaryMessageConverter();
+        ContentTypeDelegatingMessageConverter converter =
+                new ContentTypeDelegatingMessageConverter("binary".equalsIgnoreCase(wireFormat) ? binary : json);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(ActivityBinaryMessageConverter.CONTENT_TYPE, binary);
+        return converter;
+    }// Publishes activities as JSON or compact binary (rabbitmq.wire-format); incoming messages are decoded by their content type, so both formats coexist during rollout.
 }
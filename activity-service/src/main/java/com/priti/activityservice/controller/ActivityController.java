@@ -1,20 +1,53 @@
 package com.priti.activityservice.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priti.activityservice.dto.ActivityBatchResponseDTO;
+import com.priti.activityservice.dto.ActivityExportFormat;
+import com.priti.activityservice.dto.ActivityPageDTO;
+import com.priti.activityservice.dto.ActivityQueryDTO;
 import com.priti.activityservice.dto.ActivityRequestDTO;
 import com.priti.activityservice.dto.ActivityResponseDTO;
+import com.priti.activityservice.dto.ActivitySampleDTO;
+import com.priti.activityservice.dto.ActivitySummaryDTO;
+import com.priti.activityservice.model.ActivitySampleSummary;
+import com.priti.activityservice.model.RollupPeriod;
+import com.priti.activityservice.service.ActivityRollupService;
+import com.priti.activityservice.service.ActivitySampleService;
 import com.priti.activityservice.service.ActivityService;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
-@AllArgsConstructor
+@RequiredArgsConstructor
 @RestController
+@Slf4j
 @RequestMapping("api/activities")
 public class ActivityController {
 
     private final ActivityService activityService;
+    private final ActivityRollupService activityRollupService;
+    private final ActivitySampleService activitySampleService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${activity.http.cache.max-age}")
+    private Duration cacheMaxAge;
+
     @PostMapping
     public ResponseEntity<ActivityResponseDTO> trackActivity(@RequestBody ActivityRequestDTO activityRequest, @RequestHeader("X-User-ID") String userId) {
         if (userId != null){
@@ -23,16 +56,111 @@ public class ActivityController {
         return ResponseEntity.ok(activityService.trackActivity(activityRequest));
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivityBatchResponseDTO> trackActivities(@RequestBody List<ActivityRequestDTO> activityRequests, @RequestHeader("X-User-ID") String userId) {
+        return ResponseEntity.ok(activityService.trackActivities(userId, activityRequests));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ActivityBatchResponseDTO> trackActivitiesNdjson(@RequestBody String body, @RequestHeader("X-User-ID") String userId) {
+        return ResponseEntity.ok(activityService.trackActivities(userId, parseNdjson(body)));
+    }
+
+    // Newest first; optional type/from/to filters, limit and the after cursor. The next page's cursor is returned in X-Next-Cursor.
     @GetMapping
-    public ResponseEntity<List<ActivityResponseDTO>> getUserActivities(@RequestHeader("X-User-ID") String userId) {
-        return ResponseEntity.ok(activityService.getUserActivities(userId));
+    public ResponseEntity<List<ActivityResponseDTO>> getUserActivities(@RequestHeader("X-User-ID") String userId, ActivityQueryDTO activityQuery) {
+        ActivityPageDTO page = activityService.getUserActivities(userId, activityQuery);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getActivities());
     }
 
+    // Full history as NDJSON (default) or SSE, newest first. Resume with ?after=<last activity id> or the SSE Last-Event-ID header.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUserActivities(@RequestHeader("X-User-ID") String userId,
+                                                                      @RequestParam(defaultValue = "NDJSON") ActivityExportFormat format,
+                                                                      @RequestParam(required = false) String after,
+                                                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String resumeAfter = after != null ? after : lastEventId;
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, true) : outputStream; // sync flush keeps the stream incremental
+            activityService.exportUserActivities(userId, resumeAfter, format, target);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == ActivityExportFormat.SSE ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // Daily (default) or weekly totals for the last N days, read from precomputed rollups
+    @GetMapping("/summary")
+    public ResponseEntity<ActivitySummaryDTO> getActivitySummary(@RequestHeader("X-User-ID") String userId,
+                                                                 @RequestParam(required = false) RollupPeriod period,
+                                                                 @RequestParam(required = false) Integer days) {
+        return ResponseEntity.ok(activityRollupService.getSummary(userId, period, days));
+    }
+
+    // High-frequency sensor samples go to the activity_samples time-series collection, not into additionalMetrics
+    @PostMapping("/{activityId}/samples")
+    public ResponseEntity<ActivitySampleSummary> ingestSamples(@PathVariable String activityId,
+                                                               @RequestBody List<ActivitySampleDTO> samples,
+                                                               @RequestHeader("X-User-ID") String userId) {
+        return ResponseEntity.ok(activitySampleService.ingestSamples(userId, activityId, samples));
+    }
+
+    @GetMapping("/{activityId}/samples")
+    public ResponseEntity<List<ActivitySampleDTO>> getSamples(@PathVariable String activityId,
+                                                              @RequestHeader("X-User-ID") String userId,
+                                                              @RequestParam(defaultValue = "10s") String resolution,
+                                                              @RequestParam(required = false) Instant from,
+                                                              @RequestParam(required = false) Instant to) {
+        return ResponseEntity.ok(activitySampleService.getSamples(userId, activityId, DurationStyle.detectAndParse(resolution), from, to));
+    }
+
+    // With an ETag on the response, a matching If-None-Match is answered 304 without a body
     @GetMapping("/{activityId}")
     public ResponseEntity<ActivityResponseDTO> getActivityById(@PathVariable String activityId) {
         ActivityResponseDTO activity = activityService.getActivityById(activityId);
-        return ResponseEntity.ok(activity);
+        return ResponseEntity.ok()
+                .eTag(eTag(activity))
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePrivate()) // per user; the gateway cache keys on X-User-ID
+                .body(activity);
     }
 
+    // Strong ETag over the response JSON: it changes with anything the client can see (e.g. newly ingested samples) and nothing else
+    private String eTag(Object body) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not compute ETag", e);
+        }
+    }
 
+    // One activity per line; a line that cannot be parsed becomes a null entry and is reported as a failed item
+    private List<ActivityRequestDTO> parseNdjson(String body) {
+        List<ActivityRequestDTO> activityRequests = new ArrayList<>();
+        body.lines()
+                .filter(line -> !line.isBlank())
+                .forEach(line -> {
+                    try {
+                        activityRequests.add(objectMapper.readValue(line, ActivityRequestDTO.class));
+                    } catch (Exception e) {
+                        log.warn("Skipping malformed NDJSON activity line: {}", e.getMessage());
+                        activityRequests.add(null);
+                    }
+                });
+        return activityRequests;
+    }
 }
@@ -0,0 +1,28 @@
+package com.priti.activityservice.converter;
+
+import com.priti.activityservice.model.ActivityMetrics;
+import com.priti.activityservice.model.MetricSeries;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+// Reads both layouts: binary series, and legacy documents where series are plain arrays (compacted on the next save)
+@ReadingConverter
+public class ActivityMetricsReadingConverter implements Converter<Document, ActivityMetrics> {
+
+    @Override
+    public ActivityMetrics convert(Document document) {
+        ActivityMetrics metrics = new ActivityMetrics();
+        document.forEach((key, value) -> {
+            if (ActivityMetrics.SERIES_KEYS.contains(key) && value instanceof Binary binary) {
+                metrics.getSeries().put(key, MetricSeries.wrap(binary.getData()));
+            } else if (ActivityMetrics.SERIES_KEYS.contains(key) && value instanceof byte[] data) {
+                metrics.getSeries().put(key, MetricSeries.wrap(data));
+            } else {
+                metrics.put(key, value);
+            }
+        });
+        return metrics;
+    }
+}
@@ -0,0 +1,23 @@
+package com.priti.activityservice.converter;
+
+import com.priti.activityservice.model.ActivityMetrics;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+// Stores series as binary blocks under their own key; unknown keys stay where they were
+@WritingConverter
+public class ActivityMetricsWritingConverter implements Converter<ActivityMetrics, Document> {
+
+    @Override
+    public Document convert(ActivityMetrics metrics) {
+        Document document = new Document();
+        if (metrics.getDistance() != null) {
+            document.put(ActivityMetrics.DISTANCE, metrics.getDistance());
+        }
+        metrics.getSeries().forEach((key, series) -> document.put(key, new Binary(series.getData())));
+        document.putAll(metrics.getExtra());
+        return document;
+    }
+}
@@ -0,0 +1,15 @@
+package com.priti.activityservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityBatchItemResultDTO {
+    private int index; // position of the activity in the submitted batch
+    private boolean success;
+    private String activityId;
+    private String error;
+}
@@ -0,0 +1,13 @@
+package com.priti.activityservice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ActivityBatchResponseDTO {
+    private int received;
+    private int succeeded;
+    private int failed;
+    private List<ActivityBatchItemResultDTO> results;
+}
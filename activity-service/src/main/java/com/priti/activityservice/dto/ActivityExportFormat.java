@@ -0,0 +1,6 @@
+package com.priti.activityservice.dto;
+
+public enum ActivityExportFormat {
+    NDJSON,
+    SSE
+}
@@ -0,0 +1,13 @@
+package com.priti.activityservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ActivityPageDTO {
+    private List<ActivityResponseDTO> activities;
+    private String nextCursor; // null on the last page
+}
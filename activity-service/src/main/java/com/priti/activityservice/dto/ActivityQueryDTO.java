@@ -0,0 +1,21 @@
+package com.priti.activityservice.dto;
+
+import com.priti.activityservice.model.ActivityType;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ActivityQueryDTO {
+    private ActivityType type;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    private String after; // opaque cursor from the previous page's X-Next-Cursor header
+    private Integer limit;
+}
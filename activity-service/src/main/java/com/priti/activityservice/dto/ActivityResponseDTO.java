@@ -1,5 +1,6 @@
 package com.priti.activityservice.dto;
 
+import com.priti.activityservice.model.ActivitySampleSummary;
 import com.priti.activityservice.model.ActivityType;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
@@ -18,6 +19,7 @@ public class ActivityResponseDTO {
     private Integer caloriesBurned;
     private LocalDateTime startTime;
     private Map<String, Object> additionalMetrics;
+    private ActivitySampleSummary sampleSummary;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,17 @@
+package com.priti.activityservice.dto;
+
+import com.priti.activityservice.model.ActivityTotals;
+import com.priti.activityservice.model.ActivityType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class ActivityRollupDTO {
+    private LocalDate periodStart;
+    private ActivityTotals totals;
+    private Map<ActivityType, ActivityTotals> byType;
+}
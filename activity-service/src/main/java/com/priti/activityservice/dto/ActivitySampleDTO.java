@@ -0,0 +1,18 @@
+package com.priti.activityservice.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+// A raw sample on upload; a bucket average (timestamp = bucket start) on read
+@Data
+public class ActivitySampleDTO {
+    private Instant timestamp;
+    private Double heartRate;
+    private Double power;
+    private Double cadence;
+    private Double speed;
+    private Double latitude;
+    private Double longitude;
+    private Double altitude;
+}
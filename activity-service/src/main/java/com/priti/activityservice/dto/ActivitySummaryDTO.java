@@ -0,0 +1,21 @@
+package com.priti.activityservice.dto;
+
+import com.priti.activityservice.model.ActivityTotals;
+import com.priti.activityservice.model.ActivityType;
+import com.priti.activityservice.model.RollupPeriod;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ActivitySummaryDTO {
+    private String userId;
+    private RollupPeriod period;
+    private LocalDate from;
+    private LocalDate to;
+    private ActivityTotals totals; // whole range
+    private Map<ActivityType, ActivityTotals> byType; // whole range
+    private List<ActivityRollupDTO> rollups; // one per day or week that has activity
+}
@@ -0,0 +1,13 @@
+package com.priti.activityservice.dto;
+
+import com.priti.activityservice.model.UserEventType;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class UserEventDTO {
+    private String userId;
+    private UserEventType eventType;
+    private LocalDateTime occurredAt;
+}
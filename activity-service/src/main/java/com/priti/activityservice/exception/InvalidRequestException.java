@@ -0,0 +1,12 @@
+package com.priti.activityservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Client input the service cannot accept (malformed cursor, oversized batch...); answered with 400 instead of 500
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
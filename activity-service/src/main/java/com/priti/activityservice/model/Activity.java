@@ -7,14 +7,15 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
-import java.util.Map;
 
 
 @Document(collection = "activities")
+@CompoundIndex(name = "user_start_time", def = "{'userId': 1, 'startTime': -1, '_id': -1}") // serves the paginated per-user history
 @Data
 @Builder
 @AllArgsConstructor
@@ -29,7 +30,9 @@ public class Activity {
     private LocalDateTime startTime;
 
     @Field("metrics")
-    private Map<String, Object> additionalMetrics;
+    private ActivityMetrics additionalMetrics;
+
+    private ActivitySampleSummary sampleSummary; // stats over the samples in activity_samples, null until samples are uploaded
 
     @CreatedDate
     private LocalDateTime createdAt;
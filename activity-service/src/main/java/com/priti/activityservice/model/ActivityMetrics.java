@@ -0,0 +1,67 @@
+package com.priti.activityservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Typed view of Activity.additionalMetrics. Well-known metrics get compact storage, anything else is kept verbatim.
+// On the wire (REST and RabbitMQ) it is still the same flat JSON object.
+@Getter
+@EqualsAndHashCode
+@ToString
+public class ActivityMetrics {
+    public static final String DISTANCE = "distance";
+    public static final String HEART_RATE = "heartRate";
+    public static final String PACE = "pace";
+    public static final String CADENCE = "cadence";
+    public static final Set<String> SERIES_KEYS = Set.of(HEART_RATE, PACE, CADENCE);
+
+    @Setter
+    private Double distance;
+    private final Map<String, MetricSeries> series = new LinkedHashMap<>();
+    private final Map<String, Object> extra = new LinkedHashMap<>(); // unknown keys, round-tripped untouched
+
+    @JsonCreator
+    public static ActivityMetrics from(Map<String, Object> metrics) {
+        if (metrics == null) {
+            return null;
+        }
+        ActivityMetrics activityMetrics = new ActivityMetrics();
+        metrics.forEach(activityMetrics::put);
+        return activityMetrics;
+    }
+
+    public void put(String key, Object value) {
+        if (DISTANCE.equals(key) && value instanceof Number number) {
+            distance = number.doubleValue();
+            return;
+        }
+        if (SERIES_KEYS.contains(key) && value instanceof List<?> samples) {
+            MetricSeries metricSeries = MetricSeries.of(samples);
+            if (metricSeries != null) {
+                series.put(key, metricSeries);
+                return;
+            }
+        }
+        extra.put(key, value);
+    }
+
+    @JsonValue
+    public Map<String, Object> toMap() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        if (distance != null) {
+            metrics.put(DISTANCE, distance);
+        }
+        series.forEach((key, metricSeries) -> metrics.put(key, metricSeries.toList()));
+        metrics.putAll(extra);
+        return metrics;
+    }
+}
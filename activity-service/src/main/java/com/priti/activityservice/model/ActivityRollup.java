@@ -0,0 +1,38 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Per-user totals for one day or week, kept up to date with $inc as activities are tracked
+@Document(collection = "activity_rollups")
+@CompoundIndex(name = "user_period_start", def = "{'userId': 1, 'period': 1, 'periodStart': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityRollup {
+    @Id
+    private String id; // userId|period|periodStart, so increments can upsert by _id
+    private String userId;
+    private RollupPeriod period;
+    private LocalDate periodStart;
+    @Builder.Default
+    private ActivityTotals totals = new ActivityTotals();
+    @Builder.Default
+    private Map<ActivityType, ActivityTotals> byType = new EnumMap<>(ActivityType.class);
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String userId, RollupPeriod period, LocalDate periodStart) {
+        return userId + "|" + period + "|" + periodStart;
+    }
+}
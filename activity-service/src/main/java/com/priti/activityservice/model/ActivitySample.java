@@ -0,0 +1,31 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+
+// One sensor reading, kept in a time-series collection so per-second data never bloats the Activity document
+@TimeSeries(collection = "activity_samples", timeField = "timestamp", metaField = "meta", granularity = Granularity.SECONDS)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivitySample {
+    @Id
+    private String id;
+    private Instant timestamp;
+    private SampleMeta meta;
+    private Double heartRate;
+    private Double power;
+    private Double cadence;
+    private Double speed;
+    private Double latitude;
+    private Double longitude;
+    private Double altitude;
+}
@@ -0,0 +1,20 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Written back onto the Activity as samples arrive; recomputed from the stored samples, so retried uploads never double-count
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivitySampleSummary {
+    private long count;
+    private Instant firstSampleAt;
+    private Instant lastSampleAt;
+    private Map<String, SampleStats> metrics = new LinkedHashMap<>(); // heartRate, power, cadence, speed, altitude
+}
@@ -0,0 +1,26 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityTotals {
+    private long count;
+    private long duration;
+    private long caloriesBurned;
+
+    public void add(Activity activity) {
+        count++;
+        duration += activity.getDuration() == null ? 0 : activity.getDuration();
+        caloriesBurned += activity.getCaloriesBurned() == null ? 0 : activity.getCaloriesBurned();
+    }
+
+    public void add(ActivityTotals totals) {
+        count += totals.count;
+        duration += totals.duration;
+        caloriesBurned += totals.caloriesBurned;
+    }
+}
@@ -0,0 +1,199 @@
+package com.priti.activityservice.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A numeric sample series (heart rate, pace, cadence...) packed as one layout tag plus the samples:
+// integer series as zigzag varint deltas, decimal series as varint deltas of the samples scaled to integers
+// (5.2 -> 52 at scale 1), and any other decimal series as little-endian float64s. Neighbouring samples are close,
+// so most take a single byte instead of a boxed number on the heap and a keyed double per element in BSON;
+// samples are only decoded when someone asks for them, and always read back with the value and type they were sent with.
+public final class MetricSeries {
+
+    private static final byte INTS = 1, DECIMALS = 2, DOUBLES = 3;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+    private static final int MAX_SCALE = POWERS_OF_TEN.length - 1;
+    private static final long MAX_EXACT_LONG = 1L << 53; // unscaled values beyond this are not exact as doubles
+
+    private final byte[] data;
+
+    private MetricSeries(byte[] data) {
+        this.data = data;
+    }
+
+    public static MetricSeries wrap(byte[] data) {
+        return new MetricSeries(data);
+    }
+
+    // Returns null when the list cannot be packed losslessly (non-numbers, or integer and decimal samples mixed),
+    // so the caller can keep it as-is
+    public static MetricSeries of(List<?> samples) {
+        if (samples.isEmpty()) {
+            return null;
+        }
+        if (samples.stream().allMatch(MetricSeries::isInteger)) {
+            Writer writer = new Writer(1 + samples.size());
+            writer.write(INTS);
+            long previous = 0;
+            for (Object sample : samples) {
+                long value = ((Number) sample).longValue();
+                writer.zigzag(value - previous);
+                previous = value;
+            }
+            return new MetricSeries(writer.toByteArray());
+        }
+        if (samples.stream().allMatch(sample -> sample instanceof Double)) {
+            int scale = scaleOf(samples);
+            return new MetricSeries(scale < 0 ? packDoubles(samples) : packDecimals(samples, scale));
+        }
+        return null;
+    }
+
+    private static boolean isInteger(Object sample) {
+        return sample instanceof Integer || sample instanceof Long || sample instanceof Short || sample instanceof Byte;
+    }
+
+    // The smallest number of decimal places that represents every sample exactly, or -1 if there is none up to MAX_SCALE
+    private static int scaleOf(List<?> samples) {
+        int scale = 0;
+        for (Object sample : samples) {
+            double value = (Double) sample;
+            if (!Double.isFinite(value)) {
+                return -1;
+            }
+            scale = Math.max(scale, BigDecimal.valueOf(value).stripTrailingZeros().scale());
+            if (scale > MAX_SCALE) {
+                return -1;
+            }
+        }
+        double factor = POWERS_OF_TEN[scale];
+        for (Object sample : samples) {
+            double value = (Double) sample;
+            long unscaled = Math.round(value * factor);
+            // Division of two exact doubles is correctly rounded, so this reproduces the parsed value bit for bit
+            if (Math.abs(unscaled) >= MAX_EXACT_LONG
+                    || Double.doubleToRawLongBits(unscaled / factor) != Double.doubleToRawLongBits(value)) {
+                return -1;
+            }
+        }
+        return scale;
+    }
+
+    private static byte[] packDecimals(List<?> samples, int scale) {
+        double factor = POWERS_OF_TEN[scale];
+        Writer writer = new Writer(2 + samples.size());
+        writer.write(DECIMALS);
+        writer.write(scale);
+        long previous = 0;
+        for (Object sample : samples) {
+            long unscaled = Math.round((Double) sample * factor);
+            writer.zigzag(unscaled - previous);
+            previous = unscaled;
+        }
+        return writer.toByteArray();
+    }
+
+    private static byte[] packDoubles(List<?> samples) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + samples.size() * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(DOUBLES);
+        samples.forEach(sample -> buffer.putDouble((Double) sample));
+        return buffer.array();
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int size() {
+        return toList().size();
+    }
+
+    public List<Number> toList() {
+        ByteBuffer samples = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        byte layout = samples.get();
+        List<Number> list = new ArrayList<>();
+        switch (layout) {
+            case INTS -> {
+                long value = 0;
+                while (samples.hasRemaining()) {
+                    value += zigzag(samples);
+                    list.add(value == (int) value ? (Number) (int) value : (Number) value); // the types JSON decoding yields
+                }
+            }
+            case DECIMALS -> {
+                double factor = POWERS_OF_TEN[samples.get()];
+                long unscaled = 0;
+                while (samples.hasRemaining()) {
+                    unscaled += zigzag(samples);
+                    list.add(unscaled / factor);
+                }
+            }
+            case DOUBLES -> {
+                while (samples.hasRemaining()) {
+                    list.add(samples.getDouble());
+                }
+            }
+            default -> throw new IllegalStateException("Unknown metric series layout " + layout);
+        }
+        return list;
+    }
+
+    private static long zigzag(ByteBuffer buffer) {
+        long raw = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = buffer.get();
+            raw |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+    }
+
+    private static final class Writer {
+        private byte[] bytes;
+        private int size;
+
+        private Writer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        private void write(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void zigzag(long value) {
+            long raw = (value << 1) ^ (value >> 63);
+            while ((raw & ~0x7FL) != 0) {
+                write((int) ((raw & 0x7F) | 0x80));
+                raw >>>= 7;
+            }
+            write((int) raw);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof MetricSeries other && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+
+    @Override
+    public String toString() {
+        return "MetricSeries[" + size() + " samples]";
+    }
+}
@@ -0,0 +1,40 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Pending activity event, written in the same transaction as the Activity and drained by the outbox relay
+@Document(collection = "activity_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+@CompoundIndex(name = "status_lease_expires", def = "{'status': 1, 'leaseExpiresAt': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    private String id;
+    private String aggregateId;
+    private String exchange;
+    private String routingKey;
+    private Activity payload;
+    private Integer priority; // AMQP message priority; interactive activities overtake bulk uploads
+    private OutboxStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private String claimedBy; // relay run that owns the event while IN_FLIGHT
+    private LocalDateTime leaseExpiresAt;
+    private LocalDateTime createdAt;
+
+    @Indexed(expireAfter = "7d") // published events are cleaned up by Mongo; pending ones have no publishedAt
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,7 @@
+package com.priti.activityservice.model;
+
+public enum OutboxStatus {
+    PENDING,
+    IN_FLIGHT, // claimed by one relay instance until its lease expires
+    PUBLISHED
+}
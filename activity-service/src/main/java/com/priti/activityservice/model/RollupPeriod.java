@@ -0,0 +1,6 @@
+package com.priti.activityservice.model;
+
+public enum RollupPeriod {
+    DAY,
+    WEEK // ISO weeks, starting on Monday
+}
@@ -0,0 +1,14 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Time-series metaField: Mongo buckets samples by this value
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SampleMeta {
+    private String activityId;
+    private String userId;
+}
@@ -0,0 +1,19 @@
+package com.priti.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SampleStats {
+    private long count;
+    private double sum;
+    private double min;
+    private double max;
+
+    public Double getAverage() {
+        return count == 0 ? null : sum / count;
+    }
+}
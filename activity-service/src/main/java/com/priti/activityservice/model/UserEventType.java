@@ -0,0 +1,5 @@
+package com.priti.activityservice.model;
+
+public enum UserEventType {
+    REGISTERED
+}
@@ -0,0 +1,32 @@
+package com.priti.activityservice.repository;
+
+import com.priti.activityservice.exception.InvalidRequestException;
+import com.priti.activityservice.model.Activity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Keyset position in the (startTime desc, _id desc) ordering, encoded as an opaque URL-safe token
+public record ActivityCursor(LocalDateTime startTime, String id) {
+
+    public static ActivityCursor of(Activity activity) {
+        return new ActivityCursor(activity.getStartTime(), activity.getId());
+    }
+
+    public String encode() {
+        String raw = (startTime == null ? "" : startTime.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ActivityCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String startTime = raw.substring(0, separator);
+            return new ActivityCursor(startTime.isEmpty() ? null : LocalDateTime.parse(startTime), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.priti.activityservice.repository;
+
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ActivityRepositoryCustom {
+    List<Activity> findUserActivitiesPage(String userId, ActivityType type, LocalDateTime from, LocalDateTime to,
+                                          ActivityCursor after, int limit);
+
+    Stream<Activity> streamUserActivities(String userId, ActivityCursor after);
+}
@@ -0,0 +1,74 @@
+package com.priti.activityservice.repository;
+
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.ActivityType;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class ActivityRepositoryCustomImpl implements ActivityRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("startTime"), Sort.Order.desc("_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    // Walks the {userId, startTime desc, _id desc} index from the cursor position, so each page costs O(limit)
+    @Override
+    public List<Activity> findUserActivitiesPage(String userId, ActivityType type, LocalDateTime from, LocalDateTime to,
+                                                 ActivityCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("userId").is(userId));
+        if (type != null) {
+            criteria.add(Criteria.where("type").is(type));
+        }
+        if (from != null || to != null) {
+            Criteria startTime = Criteria.where("startTime");
+            if (from != null) {
+                startTime.gte(from);
+            }
+            if (to != null) {
+                startTime.lt(to);
+            }
+            criteria.add(startTime);
+        }
+        if (after != null) {
+            criteria.add(afterCursor(after));
+        }
+
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .with(NEWEST_FIRST)
+                .limit(limit);
+        return mongoTemplate.find(query, Activity.class);
+    }
+
+    // Backed by a server-side cursor: documents are fetched in driver-sized batches as the caller consumes the stream
+    @Override
+    public Stream<Activity> streamUserActivities(String userId, ActivityCursor after) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, afterCursor(after));
+        }
+        return mongoTemplate.stream(new Query(criteria).with(NEWEST_FIRST), Activity.class);
+    }
+
+    // Activities without a startTime sort last in descending order, so they follow every dated page
+    private Criteria afterCursor(ActivityCursor after) {
+        Object id = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+        if (after.startTime() == null) {
+            return new Criteria().andOperator(Criteria.where("startTime").is(null), Criteria.where("_id").lt(id));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("startTime").lt(after.startTime()),
+                new Criteria().andOperator(Criteria.where("startTime").is(after.startTime()), Criteria.where("_id").lt(id)),
+                Criteria.where("startTime").is(null));
+    }
+}
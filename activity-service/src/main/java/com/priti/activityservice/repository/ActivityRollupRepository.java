@@ -0,0 +1,14 @@
+package com.priti.activityservice.repository;
+
+import com.priti.activityservice.model.ActivityRollup;
+import com.priti.activityservice.model.RollupPeriod;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ActivityRollupRepository extends MongoRepository<ActivityRollup, String> {
+    List<ActivityRollup> findByUserIdAndPeriodAndPeriodStartGreaterThanEqualOrderByPeriodStartAsc(String userId, RollupPeriod period, LocalDate from);
+}
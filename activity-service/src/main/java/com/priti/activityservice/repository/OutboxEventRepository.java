@@ -0,0 +1,15 @@
+package com.priti.activityservice.repository;
+
+import com.priti.activityservice.model.OutboxEvent;
+import com.priti.activityservice.model.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(OutboxStatus status, LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,5 @@
+package com.priti.activityservice.service;
+
+public interface ActivityMetricsMigrationService {
+    long migrateLegacyMetrics();
+}
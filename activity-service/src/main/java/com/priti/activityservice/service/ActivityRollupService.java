@@ -0,0 +1,15 @@
+package com.priti.activityservice.service;
+
+import com.priti.activityservice.dto.ActivitySummaryDTO;
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.RollupPeriod;
+
+import java.util.Collection;
+
+public interface ActivityRollupService {
+    void record(Collection<Activity> activities);
+
+    ActivitySummaryDTO getSummary(String userId, RollupPeriod period, Integer days);
+
+    int rebuildAll();
+}
@@ -0,0 +1,14 @@
+package com.priti.activityservice.service;
+
+import com.priti.activityservice.dto.ActivitySampleDTO;
+import com.priti.activityservice.model.ActivitySampleSummary;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public interface ActivitySampleService {
+    ActivitySampleSummary ingestSamples(String userId, String activityId, List<ActivitySampleDTO> samples);
+
+    List<ActivitySampleDTO> getSamples(String userId, String activityId, Duration resolution, Instant from, Instant to);
+}
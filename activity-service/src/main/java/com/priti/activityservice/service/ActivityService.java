@@ -1,16 +1,27 @@
 package com.priti.activityservice.service;
 
+import com.priti.activityservice.dto.ActivityBatchResponseDTO;
+import com.priti.activityservice.dto.ActivityExportFormat;
+import com.priti.activityservice.dto.ActivityPageDTO;
+import com.priti.activityservice.dto.ActivityQueryDTO;
 import com.priti.activityservice.dto.ActivityRequestDTO;
 import com.priti.activityservice.dto.ActivityResponseDTO;
 import com.priti.activityservice.model.Activity;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ActivityService {
     ActivityResponseDTO trackActivity(ActivityRequestDTO activityRequest);
+
+    ActivityBatchResponseDTO trackActivities(String userId, List<ActivityRequestDTO> activityRequests);
+
     ActivityResponseDTO mapToResponse(Activity activity);
 
-    List<ActivityResponseDTO> getUserActivities(String userId);
+    ActivityPageDTO getUserActivities(String userId, ActivityQueryDTO activityQuery);
+
+    void exportUserActivities(String userId, String afterActivityId, ActivityExportFormat format, OutputStream outputStream) throws IOException;
 
     ActivityResponseDTO getActivityById(String activityId);
 }
@@ -0,0 +1,11 @@
+package com.priti.activityservice.service;
+
+import com.priti.activityservice.model.Activity;
+
+import java.util.Collection;
+
+public interface OutboxService {
+    void enqueue(Collection<Activity> activities, int priority);
+
+    int relayPendingEvents();
+}
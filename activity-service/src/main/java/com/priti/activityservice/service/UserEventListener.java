@@ -0,0 +1,7 @@
+package com.priti.activityservice.service;
+
+import com.priti.activityservice.dto.UserEventDTO;
+
+public interface UserEventListener {
+    void onUserEvent(UserEventDTO userEvent);
+}
@@ -3,4 +3,6 @@ package com.priti.activityservice.service;
 public interface UserValidationService {
 
     boolean validateUser(String userId);
+
+    void invalidateUser(String userId);
 }
@@ -0,0 +1,78 @@
+package com.priti.activityservice.service.impl;
+
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.ActivityMetrics;
+import com.priti.activityservice.service.ActivityMetricsMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityMetricsMigrationServiceImpl implements ActivityMetricsMigrationService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${activity.metrics.migration.on-startup}")
+    private boolean migrateOnStartup;
+    @Value("${activity.metrics.migration.batch-size}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            Thread.ofPlatform().name("metrics-migration").start(this::migrateLegacyMetrics);
+        }
+    }
+
+    // Rewrites activities whose well-known series are still stored as plain arrays; the reading converter
+    // already compacts them on load, so each one only needs its metrics written back
+    @Override
+    public long migrateLegacyMetrics() {
+        Query legacyActivities = query(new Criteria().orOperator(ActivityMetrics.SERIES_KEYS.stream()
+                .map(key -> where("metrics." + key).type(JsonSchemaObject.Type.arrayType()))
+                .toList()));
+        legacyActivities.fields().include("metrics");
+
+        long migrated = 0;
+        BulkOperations bulkOperations = null;
+        int pending = 0;
+        try (Stream<Activity> activities = mongoTemplate.stream(legacyActivities, Activity.class)) {
+            Iterator<Activity> iterator = activities.iterator();
+            while (iterator.hasNext()) {
+                Activity activity = iterator.next();
+                if (bulkOperations == null) {
+                    bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Activity.class);
+                }
+                bulkOperations.updateOne(query(where("_id").is(activity.getId())),
+                        new Update().set("metrics", activity.getAdditionalMetrics()));
+                if (++pending == batchSize) {
+                    migrated += bulkOperations.execute().getModifiedCount();
+                    bulkOperations = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulkOperations != null) {
+            migrated += bulkOperations.execute().getModifiedCount();
+        }
+        log.info("Migrated metrics of {} activities to the compact layout", migrated);
+        return migrated;
+    }
+}
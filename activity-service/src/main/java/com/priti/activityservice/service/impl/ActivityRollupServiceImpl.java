@@ -0,0 +1,209 @@
+package com.priti.activityservice.service.impl;
+
+import com.priti.activityservice.dto.ActivityRollupDTO;
+import com.priti.activityservice.dto.ActivitySummaryDTO;
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.ActivityRollup;
+import com.priti.activityservice.model.ActivityTotals;
+import com.priti.activityservice.model.ActivityType;
+import com.priti.activityservice.model.RollupPeriod;
+import com.priti.activityservice.repository.ActivityRollupRepository;
+import com.priti.activityservice.service.ActivityRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityRollupServiceImpl implements ActivityRollupService {
+
+    private final ActivityRollupRepository activityRollupRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TransactionRunner transactionRunner;
+
+    @Value("${activity.rollup.default-days}")
+    private int defaultDays;
+    @Value("${activity.rollup.max-days}")
+    private int maxDays;
+    @Value("${activity.rollup.backfill.parallelism}")
+    private int backfillParallelism;
+    @Value("${activity.rollup.backfill.on-startup}")
+    private boolean backfillOnStartup;
+
+    // Called inside the trackActivity transaction, so rollups move together with the activities they count;
+    // concurrent upserts of the same rollup abort with a transient write conflict and the caller retries
+    @Override
+    public void record(Collection<Activity> activities) {
+        Collection<ActivityRollup> increments = accumulate(activities.stream()).values();
+        if (increments.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class);
+        for (ActivityRollup increment : increments) {
+            Update update = new Update()
+                    .setOnInsert("userId", increment.getUserId())
+                    .setOnInsert("period", increment.getPeriod())
+                    .setOnInsert("periodStart", increment.getPeriodStart())
+                    .set("updatedAt", now);
+            incrementTotals(update, "totals", increment.getTotals());
+            increment.getByType().forEach((type, totals) -> incrementTotals(update, "byType." + type, totals));
+            bulkOperations.upsert(query(where("_id").is(increment.getId())), update);
+        }
+        bulkOperations.execute();
+    }
+
+    private void incrementTotals(Update update, String path, ActivityTotals totals) {
+        update.inc(path + ".count", totals.getCount())
+                .inc(path + ".duration", totals.getDuration())
+                .inc(path + ".caloriesBurned", totals.getCaloriesBurned());
+    }
+
+    // An indexed range read over at most max-days small documents instead of scanning raw activities
+    @Override
+    public ActivitySummaryDTO getSummary(String userId, RollupPeriod period, Integer days) {
+        RollupPeriod summaryPeriod = period == null ? RollupPeriod.DAY : period;
+        int range = days == null ? defaultDays : Math.clamp(days, 1, maxDays);
+        LocalDate to = LocalDate.now();
+        LocalDate from = periodStart(to.minusDays(range - 1L), summaryPeriod);
+
+        List<ActivityRollup> rollups = activityRollupRepository
+                .findByUserIdAndPeriodAndPeriodStartGreaterThanEqualOrderByPeriodStartAsc(userId, summaryPeriod, from);
+
+        ActivityTotals totals = new ActivityTotals();
+        Map<ActivityType, ActivityTotals> byType = new EnumMap<>(ActivityType.class);
+        List<ActivityRollupDTO> rollupResponses = new ArrayList<>(rollups.size());
+        for (ActivityRollup rollup : rollups) {
+            totals.add(rollup.getTotals());
+            rollup.getByType().forEach((type, typeTotals) ->
+                    byType.computeIfAbsent(type, t -> new ActivityTotals()).add(typeTotals));
+            rollupResponses.add(new ActivityRollupDTO(rollup.getPeriodStart(), rollup.getTotals(), rollup.getByType()));
+        }
+
+        ActivitySummaryDTO summary = new ActivitySummaryDTO();
+        summary.setUserId(userId);
+        summary.setPeriod(summaryPeriod);
+        summary.setFrom(from);
+        summary.setTo(to);
+        summary.setTotals(totals);
+        summary.setByType(byType);
+        summary.setRollups(rollupResponses);
+        return summary;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            Thread.ofPlatform().name("rollup-backfill").start(this::rebuildAll);
+        }
+    }
+
+    // Rebuilds every user's rollups from the activities collection, one user per task
+    @Override
+    public int rebuildAll() {
+        List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", Activity.class, String.class);
+        log.info("Rebuilding activity rollups for {} users with parallelism {}", userIds.size(), backfillParallelism);
+
+        int rebuilt = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(backfillParallelism)) {
+            List<Future<?>> futures = userIds.stream()
+                    .<Future<?>>map(userId -> executor.submit(() -> rebuildUser(userId)))
+                    .toList();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                    rebuilt++;
+                } catch (Exception e) {
+                    log.error("Rollup rebuild failed for one user", e);
+                }
+            }
+        }
+        log.info("Rebuilt activity rollups for {}/{} users", rebuilt, userIds.size());
+        return rebuilt;
+    }
+
+    // One transaction per user: the activities are read from a snapshot, and a record() that commits a rollup this
+    // rebuild also writes makes one of the two abort and run again, so no increment is overwritten and no rollup
+    // created meanwhile is removed. A user's rebuild has to fit in Mongo's transaction lifetime (60s by default).
+    private void rebuildUser(String userId) {
+        transactionRunner.inTransaction(status -> {
+            replaceUserRollups(userId);
+            return null;
+        });
+    }
+
+    private void replaceUserRollups(String userId) {
+        Query userActivities = query(where("userId").is(userId));
+        userActivities.fields().include("userId", "type", "duration", "caloriesBurned", "startTime", "createdAt");
+
+        Map<String, ActivityRollup> rollups;
+        try (Stream<Activity> activities = mongoTemplate.stream(userActivities, Activity.class)) {
+            rollups = accumulate(activities);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        rollups.values().forEach(rollup -> rollup.setUpdatedAt(now));
+
+        if (!rollups.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class);
+            rollups.values().forEach(rollup ->
+                    bulkOperations.replaceOne(query(where("_id").is(rollup.getId())), rollup, FindAndReplaceOptions.options().upsert()));
+            bulkOperations.execute();
+        }
+        mongoTemplate.remove(query(where("userId").is(userId).and("_id").nin(rollups.keySet())), ActivityRollup.class); // periods with no activities left
+    }
+
+    // Folds activities into one rollup per user, period and period start
+    private Map<String, ActivityRollup> accumulate(Stream<Activity> activities) {
+        Map<String, ActivityRollup> rollups = new HashMap<>();
+        activities.forEach(activity -> {
+            LocalDateTime at = activity.getStartTime() != null ? activity.getStartTime() : activity.getCreatedAt();
+            LocalDate day = at != null ? at.toLocalDate() : LocalDate.now();
+            for (RollupPeriod period : RollupPeriod.values()) {
+                LocalDate start = periodStart(day, period);
+                ActivityRollup rollup = rollups.computeIfAbsent(ActivityRollup.idOf(activity.getUserId(), period, start),
+                        id -> ActivityRollup.builder()
+                                .id(id)
+                                .userId(activity.getUserId())
+                                .period(period)
+                                .periodStart(start)
+                                .build());
+                rollup.getTotals().add(activity);
+                if (activity.getType() != null) {
+                    rollup.getByType().computeIfAbsent(activity.getType(), type -> new ActivityTotals()).add(activity);
+                }
+            }
+        });
+        return rollups;
+    }
+
+    private LocalDate periodStart(LocalDate day, RollupPeriod period) {
+        return period == RollupPeriod.WEEK ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+}
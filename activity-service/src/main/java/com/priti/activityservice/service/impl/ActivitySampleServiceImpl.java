@@ -0,0 +1,219 @@
+package com.priti.activityservice.service.impl;
+
+import com.priti.activityservice.dto.ActivitySampleDTO;
+import com.priti.activityservice.exception.InvalidRequestException;
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.ActivitySample;
+import com.priti.activityservice.model.ActivitySampleSummary;
+import com.priti.activityservice.model.SampleMeta;
+import com.priti.activityservice.model.SampleStats;
+import com.priti.activityservice.service.ActivitySampleService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivitySampleServiceImpl implements ActivitySampleService {
+
+    // Metrics summarised onto the Activity; GPS coordinates are stored but not summarised
+    private static final List<String> SUMMARY_METRICS = List.of("heartRate", "power", "cadence", "speed", "altitude");
+    private static final List<String> SAMPLE_FIELDS = List.of("heartRate", "power", "cadence", "speed", "latitude", "longitude", "altitude");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${activity.samples.max-batch}")
+    private int maxBatch;
+    @Value("${activity.samples.max-points}")
+    private int maxPoints;
+    @Value("${activity.samples.max-resolution}")
+    private Duration maxResolution;
+
+    // A plain insert would create activity_samples as a regular collection, so create it with its time-series options up front
+    @PostConstruct
+    public void ensureCollection() {
+        if (!mongoTemplate.collectionExists(ActivitySample.class)) {
+            mongoTemplate.createCollection(ActivitySample.class);
+            log.info("Created time-series collection activity_samples");
+        }
+    }
+
+    // Time-series collections cannot be written inside a transaction, so the two writes are made safe to repeat
+    // instead: samples already stored for the same timestamps are skipped, and the summary is recomputed from the
+    // stored samples rather than incremented. A retry after a failure between the writes, or a client resending a
+    // batch, converges on the same samples and summary.
+    @Override
+    public ActivitySampleSummary ingestSamples(String userId, String activityId, List<ActivitySampleDTO> samples) {
+        if (samples == null || samples.isEmpty()) {
+            throw new InvalidRequestException("Sample batch is empty");
+        }
+        if (samples.size() > maxBatch) {
+            throw new InvalidRequestException("Sample batch too large: " + samples.size() + " (max " + maxBatch + ")");
+        }
+        requireOwnedActivity(userId, activityId);
+
+        Instant from = null;
+        Instant to = null;
+        for (ActivitySampleDTO sample : samples) {
+            if (sample == null || sample.getTimestamp() == null) {
+                throw new InvalidRequestException("Sample timestamp is required");
+            }
+            from = from == null || sample.getTimestamp().isBefore(from) ? sample.getTimestamp() : from;
+            to = to == null || sample.getTimestamp().isAfter(to) ? sample.getTimestamp() : to;
+        }
+
+        SampleMeta meta = new SampleMeta(activityId, userId);
+        Set<Instant> timestamps = storedTimestamps(activityId, from, to);
+        List<ActivitySample> activitySamples = new ArrayList<>(samples.size());
+        for (ActivitySampleDTO sample : samples) {
+            if (!timestamps.add(sample.getTimestamp())) {
+                continue; // already stored by an earlier attempt, or repeated within this batch
+            }
+            activitySamples.add(ActivitySample.builder()
+                    .timestamp(sample.getTimestamp())
+                    .meta(meta)
+                    .heartRate(sample.getHeartRate())
+                    .power(sample.getPower())
+                    .cadence(sample.getCadence())
+                    .speed(sample.getSpeed())
+                    .latitude(sample.getLatitude())
+                    .longitude(sample.getLongitude())
+                    .altitude(sample.getAltitude())
+                    .build());
+        }
+        if (!activitySamples.isEmpty()) {
+            mongoTemplate.insert(activitySamples, ActivitySample.class);
+        }
+
+        // Samples are only ever added, so a summary with a higher count is always the newer one;
+        // a concurrent upload that computed its summary earlier cannot overwrite it
+        ActivitySampleSummary summary = summarise(activityId);
+        mongoTemplate.updateFirst(
+                query(where("_id").is(activityId).and("sampleSummary.count").not().gte(summary.getCount())),
+                new Update().set("sampleSummary", summary),
+                Activity.class);
+        log.info("Stored {} of {} samples for activity {}", activitySamples.size(), samples.size(), activityId);
+        return summary;
+    }
+
+    private Set<Instant> storedTimestamps(String activityId, Instant from, Instant to) {
+        Query stored = query(where("meta.activityId").is(activityId).and("timestamp").gte(from).lte(to));
+        stored.fields().include("timestamp");
+        Set<Instant> timestamps = new HashSet<>();
+        mongoTemplate.find(stored, ActivitySample.class).forEach(sample -> timestamps.add(sample.getTimestamp()));
+        return timestamps;
+    }
+
+    // One pass over the activity's samples; null and missing readings are left out of each metric's stats
+    private ActivitySampleSummary summarise(String activityId) {
+        Document totals = new Document("_id", null)
+                .append("count", new Document("$sum", 1))
+                .append("firstSampleAt", new Document("$min", "$timestamp"))
+                .append("lastSampleAt", new Document("$max", "$timestamp"));
+        SUMMARY_METRICS.forEach(name -> totals
+                .append(name + "Count", new Document("$sum", new Document("$cond", List.of(new Document("$isNumber", "$" + name), 1, 0))))
+                .append(name + "Sum", new Document("$sum", "$" + name))
+                .append(name + "Min", new Document("$min", "$" + name))
+                .append(name + "Max", new Document("$max", "$" + name)));
+
+        TypedAggregation<ActivitySample> aggregation = Aggregation.newAggregation(ActivitySample.class,
+                Aggregation.match(where("meta.activityId").is(activityId)),
+                Aggregation.stage(new Document("$group", totals)));
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+
+        ActivitySampleSummary summary = new ActivitySampleSummary();
+        if (result == null) {
+            return summary;
+        }
+        summary.setCount(result.get("count", Number.class).longValue());
+        summary.setFirstSampleAt(result.get("firstSampleAt", Date.class).toInstant());
+        summary.setLastSampleAt(result.get("lastSampleAt", Date.class).toInstant());
+        SUMMARY_METRICS.forEach(name -> {
+            long count = result.get(name + "Count", Number.class).longValue();
+            if (count > 0) {
+                summary.getMetrics().put(name, new SampleStats(count,
+                        result.get(name + "Sum", Number.class).doubleValue(),
+                        result.get(name + "Min", Number.class).doubleValue(),
+                        result.get(name + "Max", Number.class).doubleValue()));
+            }
+        });
+        return summary;
+    }
+
+    // Averages samples into fixed buckets of the requested resolution (1s, 10s, 60s...)
+    @Override
+    public List<ActivitySampleDTO> getSamples(String userId, String activityId, Duration resolution, Instant from, Instant to) {
+        if (resolution.toMillis() < 1000 || resolution.toMillis() % 1000 != 0 || resolution.compareTo(maxResolution) > 0) {
+            throw new InvalidRequestException("Resolution must be a whole number of seconds between 1s and " + maxResolution.toSeconds() + "s");
+        }
+        requireOwnedActivity(userId, activityId);
+
+        Criteria criteria = where("meta.activityId").is(activityId);
+        if (from != null || to != null) {
+            Criteria timestamp = where("timestamp");
+            if (from != null) {
+                timestamp.gte(from);
+            }
+            if (to != null) {
+                timestamp.lt(to);
+            }
+            criteria = new Criteria().andOperator(criteria, timestamp);
+        }
+
+        Document averages = new Document("_id", new Document("$dateTrunc", new Document("date", "$timestamp")
+                .append("unit", "second")
+                .append("binSize", resolution.toSeconds())));
+        SAMPLE_FIELDS.forEach(field -> averages.append(field, new Document("$avg", "$" + field)));
+
+        TypedAggregation<ActivitySample> aggregation = Aggregation.newAggregation(ActivitySample.class,
+                Aggregation.match(criteria),
+                Aggregation.stage(new Document("$group", averages)),
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.limit(maxPoints));
+
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults().stream()
+                .map(this::toSample)
+                .toList();
+    }
+
+    private ActivitySampleDTO toSample(Document bucket) {
+        ActivitySampleDTO sample = new ActivitySampleDTO();
+        sample.setTimestamp(bucket.get("_id", Date.class).toInstant());
+        sample.setHeartRate(bucket.getDouble("heartRate"));
+        sample.setPower(bucket.getDouble("power"));
+        sample.setCadence(bucket.getDouble("cadence"));
+        sample.setSpeed(bucket.getDouble("speed"));
+        sample.setLatitude(bucket.getDouble("latitude"));
+        sample.setLongitude(bucket.getDouble("longitude"));
+        sample.setAltitude(bucket.getDouble("altitude"));
+        return sample;
+    }
+
+    private void requireOwnedActivity(String userId, String activityId) {
+        if (!mongoTemplate.exists(query(where("_id").is(activityId).and("userId").is(userId)), Activity.class)) {
+            throw new RuntimeException("Activity not found with id" + activityId);
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package com.priti.activityservice.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.priti.activityservice.dto.ActivityBatchItemResultDTO;
+import com.priti.activityservice.dto.ActivityBatchResponseDTO;
+import com.priti.activityservice.dto.ActivityExportFormat;
+import com.priti.activityservice.dto.ActivityPageDTO;
+import com.priti.activityservice.dto.ActivityQueryDTO;
 import com.priti.activityservice.dto.ActivityRequestDTO;
 import com.priti.activityservice.dto.ActivityResponseDTO;
 import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.ActivityMetrics;
+import com.priti.activityservice.repository.ActivityCursor;
 import com.priti.activityservice.repository.ActivityRepository;
+import com.priti.activityservice.service.ActivityRollupService;
 import com.priti.activityservice.service.ActivityService;
+import com.priti.activityservice.service.OutboxService;
 import com.priti.activityservice.service.UserValidationService;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor//@AllArgsConstructor
@@ -24,12 +42,24 @@ public class ActivityServiceImpl implements ActivityService {
 
     private final ActivityRepository activityRepository;
     private final UserValidationService userValidationService;
-    private final RabbitTemplate rabbitTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final OutboxService outboxService;
+    private final ActivityRollupService activityRollupService;
+    private final TransactionRunner transactionRunner;
+    private final ObjectMapper objectMapper;
 
-    @Value("${rabbitmq.exchange.name}")
-    private String exchange;
-    @Value("${rabbitmq.routing.key}")
-    private String routingKey;
+    @Value("${activity.batch.max-size}")
+    private int batchMaxSize;
+    @Value("${rabbitmq.priority.interactive}")
+    private int interactivePriority;
+    @Value("${rabbitmq.priority.bulk}")
+    private int bulkPriority;
+    @Value("${activity.page.default-limit}")
+    private int pageDefaultLimit;
+    @Value("${activity.page.max-limit}")
+    private int pageMaxLimit;
+    @Value("${activity.export.flush-every}")
+    private int exportFlushEvery;
 
     @Override
     public ActivityResponseDTO trackActivity(ActivityRequestDTO activityRequest) {
@@ -37,26 +67,97 @@ public class ActivityServiceImpl implements ActivityService {
         if(!isValidUser){
             throw new RuntimeException("Invalid User: " + activityRequest.getUserId());
         }
-        Activity activity = Activity.builder()
+        Activity activity = buildActivity(activityRequest);
+
+        // The activity and its outbox event commit together; the outbox relay publishes to RabbitMQ for recommendation AI processing
+        Activity savedActivity = transactionRunner.inTransaction(status -> {
+            Activity saved = activityRepository.save(activity);
+            outboxService.enqueue(List.of(saved), interactivePriority);
+            activityRollupService.record(List.of(saved));
+            return saved;
+        });
+
+        return mapToResponse(savedActivity);
+    }
+
+    @Override
+    public ActivityBatchResponseDTO trackActivities(String userId, List<ActivityRequestDTO> activityRequests) {
+        if (activityRequests == null || activityRequests.isEmpty()) {
+            throw new RuntimeException("Activity batch is empty");
+        }
+        if (activityRequests.size() > batchMaxSize) {
+            throw new RuntimeException("Activity batch too large: " + activityRequests.size() + " (max " + batchMaxSize + ")");
+        }
+        // A batch always belongs to one user, so a single validation covers every item
+        boolean isValidUser = userValidationService.validateUser(userId);
+        if(!isValidUser){
+            throw new RuntimeException("Invalid User: " + userId);
+        }
+
+        List<ActivityBatchItemResultDTO> results = new ArrayList<>(activityRequests.size());
+        List<Activity> activities = new ArrayList<>(activityRequests.size());
+        List<Integer> activityIndexes = new ArrayList<>(activityRequests.size());
+        for (int i = 0; i < activityRequests.size(); i++) {
+            ActivityRequestDTO activityRequest = activityRequests.get(i);
+            String error = validateBatchItem(activityRequest);
+            if (error != null) {
+                results.add(new ActivityBatchItemResultDTO(i, false, null, error));
+                continue;
+            }
+            activityRequest.setUserId(userId);
+            activities.add(buildActivity(activityRequest));
+            activityIndexes.add(i);
+            results.add(null); // filled in once the bulk insert has assigned ids
+        }
+
+        if (!activities.isEmpty()) {
+            try {
+                Collection<Activity> savedActivities = transactionRunner.inTransaction(status -> {
+                    Collection<Activity> saved = mongoTemplate.insert(activities, Activity.class);
+                    outboxService.enqueue(saved, bulkPriority); // batch uploads and backfills queue behind interactive activities
+                    activityRollupService.record(saved);
+                    return saved;
+                });
+                int position = 0;
+                for (Activity savedActivity : savedActivities) {
+                    int index = activityIndexes.get(position++);
+                    results.set(index, new ActivityBatchItemResultDTO(index, true, savedActivity.getId(), null));
+                }
+            } catch (Exception e) {
+                log.error("Bulk insert of {} activities failed for userId: {}", activities.size(), userId, e);
+                for (int index : activityIndexes) {
+                    results.set(index, new ActivityBatchItemResultDTO(index, false, null, "Failed to store activity"));
+                }
+            }
+        }
+
+        ActivityBatchResponseDTO response = new ActivityBatchResponseDTO();
+        response.setReceived(activityRequests.size());
+        response.setSucceeded((int) results.stream().filter(ActivityBatchItemResultDTO::isSuccess).count());
+        response.setFailed(activityRequests.size() - response.getSucceeded());
+        response.setResults(results);
+        return response;
+    }
+
+    private String validateBatchItem(ActivityRequestDTO activityRequest) {
+        if (activityRequest == null) {
+            return "Malformed or empty activity";
+        }
+        if (activityRequest.getType() == null) {
+            return "Activity type is required";
+        }
+        return null;
+    }
+
+    private Activity buildActivity(ActivityRequestDTO activityRequest) {
+        return Activity.builder()
                 .userId(activityRequest.getUserId())
                 .type(activityRequest.getType())
                 .duration(activityRequest.getDuration())
                 .caloriesBurned(activityRequest.getCaloriesBurned())
                 .startTime(activityRequest.getStartTime())
-                .additionalMetrics(activityRequest.getAdditionalMetrics())
+                .additionalMetrics(ActivityMetrics.from(activityRequest.getAdditionalMetrics()))
                 .build();
-        Activity savedActivity = activityRepository.save(activity);
-
-        // Publish activity to RabbitMQ for recommendation AI processing
-        try {
-            rabbitTemplate.convertAndSend(exchange, routingKey, savedActivity);
-            System.out.println("Activity sent to RabbitMQ: " + savedActivity);
-
-        } catch (Exception e) {
-            log.error("Failed to publish activity to RabbitMQ", e);
-        }
-
-        return mapToResponse(savedActivity);
     }
 
     @Override
@@ -68,18 +169,65 @@ public class ActivityServiceImpl implements ActivityService {
         response.setDuration(activity.getDuration());
         response.setCaloriesBurned(activity.getCaloriesBurned());
         response.setStartTime(activity.getStartTime());
-        response.setAdditionalMetrics(activity.getAdditionalMetrics());
+        response.setAdditionalMetrics(activity.getAdditionalMetrics() == null ? null : activity.getAdditionalMetrics().toMap());
+        response.setSampleSummary(activity.getSampleSummary());
         response.setCreatedAt(activity.getCreatedAt());
         response.setUpdatedAt(activity.getUpdatedAt());
         return response;
     }
 
     @Override
-    public List<ActivityResponseDTO> getUserActivities(String userId) {
-        List<Activity> activities = activityRepository.findByUserId(userId);
-        return activities.stream()
+    public ActivityPageDTO getUserActivities(String userId, ActivityQueryDTO activityQuery) {
+        int limit = activityQuery.getLimit() == null ? pageDefaultLimit : Math.clamp(activityQuery.getLimit(), 1, pageMaxLimit);
+        ActivityCursor after = activityQuery.getAfter() == null ? null : ActivityCursor.decode(activityQuery.getAfter());
+
+        // One extra row tells us whether another page exists without a count query
+        List<Activity> activities = activityRepository.findUserActivitiesPage(userId, activityQuery.getType(),
+                activityQuery.getFrom(), activityQuery.getTo(), after, limit + 1);
+        String nextCursor = null;
+        if (activities.size() > limit) {
+            activities = activities.subList(0, limit);
+            nextCursor = ActivityCursor.of(activities.get(limit - 1)).encode();
+        }
+        return new ActivityPageDTO(activities.stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    // Streams straight from the Mongo cursor, so memory stays constant no matter how long the history is
+    @Override
+    public void exportUserActivities(String userId, String afterActivityId, ActivityExportFormat format, OutputStream outputStream) throws IOException {
+        ActivityCursor after = null;
+        if (afterActivityId != null) {
+            Activity resumeFrom = activityRepository.findById(afterActivityId)
+                    .filter(activity -> userId.equals(activity.getUserId()))
+                    .orElseThrow(() -> new RuntimeException("Activity not found with id" + afterActivityId));
+            after = ActivityCursor.of(resumeFrom);
+        }
+
+        ObjectWriter writer = objectMapper.writerFor(ActivityResponseDTO.class);
+        int written = 0;
+        try (Stream<Activity> activities = activityRepository.streamUserActivities(userId, after)) {
+            Iterator<Activity> iterator = activities.iterator();
+            while (iterator.hasNext()) {
+                Activity activity = iterator.next();
+                byte[] json = writer.writeValueAsBytes(mapToResponse(activity));
+                if (format == ActivityExportFormat.SSE) {
+                    // The event id doubles as the resume token: browsers send it back as Last-Event-ID on reconnect
+                    outputStream.write(("id: " + activity.getId() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+                    outputStream.write(json);
+                    outputStream.write(new byte[] {'\n', '\n'});
+                } else {
+                    outputStream.write(json);
+                    outputStream.write('\n');
+                }
+                if (++written % exportFlushEvery == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        log.info("Exported {} activities for userId: {}", written, userId);
     }
 
     @Override
@@ -0,0 +1,166 @@
+package com.priti.activityservice.service.impl;
+
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.OutboxEvent;
+import com.priti.activityservice.model.OutboxStatus;
+import com.priti.activityservice.repository.OutboxEventRepository;
+import com.priti.activityservice.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MongoTemplate mongoTemplate;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.exchange.name}")
+    private String exchange;
+    @Value("${rabbitmq.routing.key}")
+    private String routingKey;
+    @Value("${activity.outbox.batch-size}")
+    private int batchSize;
+    @Value("${activity.outbox.confirm-timeout}")
+    private Duration confirmTimeout;
+    @Value("${activity.outbox.lease}")
+    private Duration lease;
+    @Value("${activity.outbox.backoff.initial}")
+    private Duration initialBackoff;
+    @Value("${activity.outbox.backoff.max}")
+    private Duration maxBackoff;
+
+    @Override
+    public void enqueue(Collection<Activity> activities, int priority) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = activities.stream()
+                .map(activity -> OutboxEvent.builder()
+                        .aggregateId(activity.getId())
+                        .exchange(exchange)
+                        .routingKey(routingKey)
+                        .payload(activity)
+                        .priority(priority)
+                        .status(OutboxStatus.PENDING)
+                        .attempts(0)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build())
+                .toList();
+        mongoTemplate.insert(events, OutboxEvent.class); // joins the caller's transaction
+    }
+
+    @Scheduled(fixedDelayString = "${activity.outbox.poll-interval}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = relayPendingEvents();
+            } while (published == batchSize); // keep draining while there is a backlog
+        } catch (Exception e) {
+            log.error("Outbox relay run failed", e);
+        }
+    }
+
+    // Every instance runs the relay, so a batch is claimed atomically first: only the run whose claim token is
+    // written on an event publishes it. A run that dies mid-batch leaves its events IN_FLIGHT until the lease expires.
+    @Override
+    public int relayPendingEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateMulti(
+                query(where("status").is(OutboxStatus.IN_FLIGHT).and("leaseExpiresAt").lte(now)),
+                new Update().set("status", OutboxStatus.PENDING).unset("claimedBy").unset("leaseExpiresAt"),
+                OutboxEvent.class);
+
+        List<String> candidateIds = outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                        OutboxStatus.PENDING, now, PageRequest.of(0, batchSize)).stream()
+                .map(OutboxEvent::getId)
+                .toList();
+        if (candidateIds.isEmpty()) {
+            return 0;
+        }
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                query(where("_id").in(candidateIds).and("status").is(OutboxStatus.PENDING)), // another instance may have claimed some
+                new Update().set("status", OutboxStatus.IN_FLIGHT)
+                        .set("claimedBy", claimToken)
+                        .set("leaseExpiresAt", now.plus(lease)),
+                OutboxEvent.class);
+        Query claimed = query(where("claimedBy").is(claimToken));
+        claimed.with(Sort.by("createdAt"));
+        List<OutboxEvent> events = mongoTemplate.find(claimed, OutboxEvent.class);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            // One channel and one confirm wait for the whole batch; a nack or timeout retries the batch (at-least-once)
+            rabbitTemplate.invoke(operations -> {
+                events.forEach(event -> operations.convertAndSend(event.getExchange(), event.getRoutingKey(), event.getPayload(), message -> {
+                    message.getMessageProperties().setPriority(event.getPriority());
+                    return message;
+                }));
+                operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to publish {} outbox events to RabbitMQ, scheduling retry", events.size(), e);
+            scheduleRetry(events, e);
+            return 0;
+        }
+
+        mongoTemplate.updateMulti(
+                query(where("claimedBy").is(claimToken)),
+                new Update().set("status", OutboxStatus.PUBLISHED)
+                        .set("publishedAt", LocalDateTime.now())
+                        .unset("claimedBy")
+                        .unset("leaseExpiresAt"),
+                OutboxEvent.class);
+        log.info("Published {} activity events from outbox", events.size());
+        return events.size();
+    }
+
+    private void scheduleRetry(List<OutboxEvent> events, Exception cause) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxEvent.class);
+        for (OutboxEvent event : events) {
+            int attempts = event.getAttempts() + 1;
+            bulkOperations.updateOne(
+                    query(where("_id").is(event.getId())),
+                    new Update().set("status", OutboxStatus.PENDING)
+                            .unset("claimedBy")
+                            .unset("leaseExpiresAt")
+                            .set("attempts", attempts)
+                            .set("nextAttemptAt", now.plus(backoff(attempts)))
+                            .set("lastError", cause.getMessage()));
+        }
+        bulkOperations.execute();
+    }
+
+    // Exponential backoff capped at maxBackoff; events are never dropped, only delayed
+    private Duration backoff(int attempts) {
+        long factor = 1L << Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(factor);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,46 @@
+package com.priti.activityservice.service.impl;
+
+import com.mongodb.MongoException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Runs a Mongo transaction and runs it again when it aborts with a write conflict. Concurrent writers upsert the
+// same rollup documents, so one of their transactions aborts; the driver labels that TransientTransactionError
+// and the whole transaction is safe to run again.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class TransactionRunner {
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${activity.transaction.max-attempts}")
+    private int transactionMaxAttempts;
+
+    <T> T inTransaction(TransactionCallback<T> callback) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(callback);
+            } catch (RuntimeException e) {
+                if (attempt >= transactionMaxAttempts || !isTransientTransactionError(e)) {
+                    throw e;
+                }
+                log.warn("Retrying transaction after transient error (attempt {}): {}", attempt + 1, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isTransientTransactionError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.priti.activityservice.service.impl;
+
+import com.priti.activityservice.dto.UserEventDTO;
+import com.priti.activityservice.service.UserEventListener;
+import com.priti.activityservice.service.UserValidationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserEventListenerImpl implements UserEventListener {
+
+    private final UserValidationService userValidationService;
+
+    @Override
+    @RabbitListener(queues = "#{userEventsQueue.name}")
+    public void onUserEvent(UserEventDTO userEvent) {
+        log.info("Received {} event for userId: {}", userEvent.getEventType(), userEvent.getUserId());
+        userValidationService.invalidateUser(userEvent.getUserId());
+    }
+}
@@ -1,13 +1,12 @@
 package com.priti.activityservice.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.priti.activityservice.service.UserValidationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 @Service
@@ -15,22 +14,40 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 @Slf4j
 public class UserValidationServiceImpl implements UserValidationService {
     private final WebClient userServiceWebClient;
+    private final Cache<String, Boolean> userValidationCache;
 
     @Override
     public boolean validateUser(String userId) {
+        Boolean cached = userValidationCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+
         log.info("Calling user Validation API for userId: {}", userId);
         try {
-            return userServiceWebClient.get()
+            Boolean isValid = userServiceWebClient.get()
                     .uri("/api/users/{userId}/validate", userId)
                     .retrieve() //it will make api call
                     .bodyToMono(Boolean.class)
                     .block();
+            if (isValid != null) {
+                userValidationCache.put(userId, isValid);
+                return isValid;
+            }
         } catch (WebClientResponseException e) {
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND)
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                userValidationCache.put(userId, false);
                 throw new RuntimeException("User Not Found: " + userId);
-            else if (e.getStatusCode() == HttpStatus.BAD_REQUEST)
+            } else if (e.getStatusCode() == HttpStatus.BAD_REQUEST)
                 throw new RuntimeException("Invallid Request: " + userId);
         }
-        return false;
+        return false; // transient failures are not cached
+    }
+
+    @Override
+    public void invalidateUser(String userId) {
+        if (userId != null) {
+            userValidationCache.invalidate(userId);
+        }
     }
 }
@@ -0,0 +1,87 @@
+package com.priti.activityservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every layout must read back the exact values, with the types JSON decoding would have produced
+class MetricSeriesTest {
+
+    @Test
+    void packsIntegersAsSmallDeltas() {
+        List<Integer> heartRate = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            heartRate.add(120 + (i % 7) - 3);
+        }
+
+        MetricSeries series = MetricSeries.of(heartRate);
+
+        assertEquals(heartRate, series.toList());
+        assertTrue(series.getData().length <= 2 + heartRate.size()); // one byte per sample after the first
+    }
+
+    @Test
+    void keepsLongsThatDoNotFitAnInt() {
+        List<Long> timestamps = List.of(1_700_000_000_000L, 1_700_000_001_000L, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        List<Number> decoded = MetricSeries.of(timestamps).toList();
+
+        assertEquals(timestamps, decoded);
+    }
+
+    @Test
+    void packsDecimalsLosslessly() {
+        List<Double> pace = List.of(5.2, 5.25, 5.3, 4.95, 5.0, -0.1, 123456.789);
+
+        MetricSeries series = MetricSeries.of(pace);
+
+        assertBitwiseEqual(pace, series.toList());
+        assertTrue(series.getData().length < pace.size() * Double.BYTES);
+    }
+
+    @Test
+    void keepsWholeDecimalsAsDoubles() {
+        List<Number> decoded = MetricSeries.of(List.of(5.0, 6.0, 7.0)).toList();
+
+        assertEquals(List.of(5.0, 6.0, 7.0), decoded);
+        assertTrue(decoded.stream().allMatch(Double.class::isInstance));
+    }
+
+    @Test
+    void fallsBackToDoublesForValuesWithoutShortDecimalForm() {
+        List<Double> samples = List.of(Math.PI, 0.1 + 0.2, 1e-12, Double.MAX_VALUE, -0.0, Double.NaN, Double.POSITIVE_INFINITY);
+
+        assertBitwiseEqual(samples, MetricSeries.of(samples).toList());
+    }
+
+    @Test
+    void leavesListsItCannotPackLosslessly() {
+        assertNull(MetricSeries.of(List.of()));
+        assertNull(MetricSeries.of(List.of(1, 2.5)));
+        assertNull(MetricSeries.of(List.of("a", "b")));
+        assertNull(MetricSeries.of(List.of(1.5f, 2.5f)));
+    }
+
+    @Test
+    void wrapsStoredBytes() {
+        MetricSeries series = MetricSeries.of(List.of(5.2, 5.3));
+
+        MetricSeries stored = MetricSeries.wrap(series.getData());
+
+        assertEquals(series, stored);
+        assertEquals(2, stored.size());
+    }
+
+    private static void assertBitwiseEqual(List<Double> expected, List<Number> actual) {
+        assertEquals(expected.size(), actual.size());
+        long[] expectedBits = expected.stream().mapToLong(Double::doubleToRawLongBits).toArray();
+        long[] actualBits = actual.stream().mapToLong(value -> Double.doubleToRawLongBits((Double) value)).toArray();
+        assertArrayEquals(expectedBits, actualBits);
+    }
+}
@@ -0,0 +1,52 @@
+package com.priti.activityservice.repository;
+
+import com.priti.activityservice.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ActivityCursorTest {
+
+    @Test
+    void roundTrips() {
+        ActivityCursor cursor = new ActivityCursor(LocalDateTime.of(2025, 3, 14, 7, 30, 15, 123_000_000), "65f2a1c9e4b0a1b2c3d4e5f6");
+
+        String token = cursor.encode();
+
+        assertEquals(cursor, ActivityCursor.decode(token));
+        assertEquals(token, URLEncoder.encode(token, StandardCharsets.UTF_8)); // safe in a query string as-is
+    }
+
+    @Test
+    void roundTripsWithoutStartTime() {
+        ActivityCursor cursor = new ActivityCursor(null, "65f2a1c9e4b0a1b2c3d4e5f6");
+
+        assertEquals(cursor, ActivityCursor.decode(cursor.encode()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "", "bm8tc2VwYXJhdG9y", "bm90LWEtZGF0ZXwxMjM"})
+    void rejectsMalformedToken(String token) {
+        assertThrows(InvalidRequestException.class, () -> ActivityCursor.decode(token));
+    }
+
+    @Test
+    void malformedTokenIsAnsweredWith400() {
+        String token = Base64.getUrlEncoder().encodeToString("2025-13-40T99:00|abc".getBytes(StandardCharsets.UTF_8));
+
+        InvalidRequestException e = assertThrows(InvalidRequestException.class, () -> ActivityCursor.decode(token));
+
+        assertEquals(HttpStatus.BAD_REQUEST, InvalidRequestException.class.getAnnotation(ResponseStatus.class).value());
+        assertEquals("Invalid cursor: " + token, e.getMessage());
+    }
+}
@@ -0,0 +1,170 @@
+package com.priti.activityservice.service.impl;
+
+import com.priti.activityservice.model.Activity;
+import com.priti.activityservice.model.OutboxEvent;
+import com.priti.activityservice.model.OutboxStatus;
+import com.priti.activityservice.repository.OutboxEventRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private RabbitOperations rabbitOperations;
+
+    private OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxServiceImpl(outboxEventRepository, mongoTemplate, rabbitTemplate);
+        ReflectionTestUtils.setField(outboxService, "batchSize", 200);
+        ReflectionTestUtils.setField(outboxService, "confirmTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(outboxService, "lease", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(outboxService, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(outboxService, "maxBackoff", Duration.ofMinutes(5));
+    }
+
+    // A relay run that died mid-batch left the event IN_FLIGHT; once its lease is over the next run must publish it
+    @Test
+    void redeliversEventAfterLeaseExpires() {
+        OutboxEvent abandoned = event("e1");
+        when(outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any(Pageable.class)))
+                .thenReturn(List.of(abandoned));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(abandoned));
+        publishThrough(rabbitOperations);
+
+        assertEquals(1, outboxService.relayPendingEvents());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(3)).updateMulti(queries.capture(), updates.capture(), eq(OutboxEvent.class));
+
+        // 1. expired leases go back to PENDING before candidates are read
+        Document expired = queries.getAllValues().get(0).getQueryObject();
+        assertEquals(OutboxStatus.IN_FLIGHT, expired.get("status"));
+        assertNotNull(((Document) expired.get("leaseExpiresAt")).get("$lte"));
+        assertEquals(OutboxStatus.PENDING, set(updates.getAllValues().get(0)).get("status"));
+        InOrder order = inOrder(mongoTemplate, outboxEventRepository);
+        order.verify(mongoTemplate).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(OutboxEvent.class));
+        order.verify(outboxEventRepository).findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(any(), any(), any());
+
+        // 2. the run claims it under a fresh token, only if it is still PENDING
+        Document claim = queries.getAllValues().get(1).getQueryObject();
+        assertEquals(OutboxStatus.PENDING, claim.get("status"));
+        Document claimSet = set(updates.getAllValues().get(1));
+        assertEquals(OutboxStatus.IN_FLIGHT, claimSet.get("status"));
+        String claimToken = (String) claimSet.get("claimedBy");
+        assertNotNull(claimToken);
+
+        // 3. published, confirmed, and marked PUBLISHED by that token
+        verify(rabbitOperations).convertAndSend(eq("activity.exchange"), eq("activity.tracking"), eq(abandoned.getPayload()), any(MessagePostProcessor.class));
+        verify(rabbitOperations).waitForConfirmsOrDie(10_000);
+        assertEquals(claimToken, queries.getAllValues().get(2).getQueryObject().get("claimedBy"));
+        assertEquals(OutboxStatus.PUBLISHED, set(updates.getAllValues().get(2)).get("status"));
+    }
+
+    @Test
+    void doesNotPublishEventsClaimedByAnotherInstance() {
+        when(outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any(Pageable.class)))
+                .thenReturn(List.of(event("e1")));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        assertEquals(0, outboxService.relayPendingEvents());
+
+        verify(rabbitTemplate, never()).invoke(any());
+    }
+
+    @Test
+    void releasesClaimWithBackoffWhenPublishFails() {
+        OutboxEvent event = event("e1");
+        event.setAttempts(2);
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of(event));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxEvent.class)).thenReturn(bulkOperations);
+        publishThrough(rabbitOperations);
+        doThrow(new AmqpTimeoutException("no confirm")).when(rabbitOperations).waitForConfirmsOrDie(anyLong());
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(0, outboxService.relayPendingEvents());
+
+        ArgumentCaptor<Update> retry = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), retry.capture());
+        verify(bulkOperations).execute();
+        Document retrySet = set(retry.getValue());
+        assertEquals(OutboxStatus.PENDING, retrySet.get("status"));
+        assertEquals(3, retrySet.get("attempts"));
+        // third attempt waits initial * 2^2
+        assertFalse(((LocalDateTime) retrySet.get("nextAttemptAt")).isBefore(before.plusSeconds(4)));
+        Document unset = (Document) retry.getValue().getUpdateObject().get("$unset");
+        assertTrue(unset.containsKey("claimedBy"));
+        // never marked PUBLISHED: only the lease reset and the claim ran
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(OutboxEvent.class));
+    }
+
+    private void publishThrough(RabbitOperations operations) {
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+    }
+
+    private static Document set(UpdateDefinition update) {
+        return (Document) update.getUpdateObject().get("$set");
+    }
+
+    private static OutboxEvent event(String id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId("activity-" + id)
+                .exchange("activity.exchange")
+                .routingKey("activity.tracking")
+                .payload(Activity.builder().id("activity-" + id).userId("user-1").build())
+                .priority(5)
+                .status(OutboxStatus.PENDING)
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+    }
+}
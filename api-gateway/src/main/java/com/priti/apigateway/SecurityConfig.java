@@ -39,6 +39,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:5173")); // Allow all origins
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS")); // Allow all HTTP methods
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-User-ID")); // Allow specific headers
+        configuration.setExposedHeaders(List.of("X-Next-Cursor", "Retry-After")); // Let the frontend read the activity pagination cursor and the rate limit retry hint
         configuration.setAllowCredentials(true); // Allow credentials (cookies, authorization headers, etc.)
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/api/**", configuration); // Apply CORS configuration to all API endpoints
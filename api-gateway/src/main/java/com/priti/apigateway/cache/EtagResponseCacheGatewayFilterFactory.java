@@ -0,0 +1,242 @@
+package com.priti.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Route filter for resources the services mark with a strong ETag and Cache-Control max-age (single activities and
+// their recommendations). Per route, it remembers the ETag of each user's responses for max-age (capped by ttl):
+// - a request whose If-None-Match matches gets a 304 straight from the gateway;
+// - with cache-bodies, the response itself is kept too and served without going downstream.
+// Responses without a strong ETag or max-age, or without a known Content-Length, are never stored. A non-GET request
+// through the route drops the user's entries for the paths it writes under, so e.g. newly ingested samples are not
+// hidden behind a cached activity; a per-user index of keys keeps that to the user's own entries.
+@Component
+public class EtagResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<EtagResponseCacheGatewayFilterFactory.Config> {
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private record CacheKey(String userId, String path, String variant) {
+    }
+
+    private record CachedResponse(String eTag, Duration ttl, HttpHeaders headers, byte[] body) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public EtagResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private long maxSize = 10000;
+        private Duration ttl = Duration.ofMinutes(5); // upper bound on what the service's max-age can ask for
+        private boolean cacheBodies = true; // false: only answer matching If-None-Match requests
+        private int maxBodySize = 262144;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Map<String, Set<CacheKey>> keysByUser = new ConcurrentHashMap<>();
+        Cache<CacheKey, CachedResponse> responses = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(Expiry.creating((CacheKey key, CachedResponse response) -> response.ttl()))
+                .evictionListener((CacheKey key, CachedResponse response, RemovalCause cause) -> {
+                    if (key != null) {
+                        keysByUser.computeIfPresent(key.userId(), (user, keys) -> keys.remove(key) && keys.isEmpty() ? null : keys);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responseCache", "route", String.valueOf(config.getRouteId()));
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String userId = request.getHeaders().getFirst("X-User-ID");
+            if (userId == null) {
+                return chain.filter(exchange);
+            }
+            if (request.getMethod() != HttpMethod.GET) {
+                String writePath = request.getURI().getRawPath();
+                List<CacheKey> written = new ArrayList<>();
+                keysByUser.computeIfPresent(userId, (user, keys) -> {
+                    keys.removeIf(key -> writePath.startsWith(key.path()) && written.add(key));
+                    return keys.isEmpty() ? null : keys;
+                });
+                responses.invalidateAll(written); // outside compute: the eviction listener locks in the opposite order
+                return chain.filter(exchange);
+            }
+
+            CacheKey key = new CacheKey(userId, request.getURI().getRawPath(),
+                    request.getURI().getRawQuery() + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT)
+                            + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+            String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+            CachedResponse cached = responses.getIfPresent(key);
+            if (cached != null && matches(ifNoneMatch, cached.eTag())) {
+                count(config, "not-modified");
+                return notModified(exchange.getResponse(), cached.headers());
+            }
+            if (cached != null && cached.body() != null) {
+                count(config, "hit");
+                return write(exchange.getResponse(), cached);
+            }
+            count(config, "miss");
+
+            if (!config.isCacheBodies()) {
+                // Remember the ETag the service answers with (on a 200 or its own 304) for the next conditional request
+                exchange.getResponse().beforeCommit(() -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    if (response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        store(responses, keysByUser, key, response.getHeaders(), null, config);
+                    }
+                    return Mono.empty();
+                });
+                return chain.filter(exchange);
+            }
+            // Ask for the full body so it can be cached; the client's If-None-Match is applied here afterwards
+            ServerWebExchange unconditional = exchange.mutate()
+                    .request(request.mutate().headers(headers -> headers.remove(HttpHeaders.IF_NONE_MATCH)).build())
+                    .response(storing(exchange.getResponse(), responses, keysByUser, key, ifNoneMatch, config))
+                    .build();
+            return chain.filter(unconditional);
+        };
+        // Before NettyWriteResponseFilter writes the body, and before the rate limiter: hits cost no tokens
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+
+    private ServerHttpResponse storing(ServerHttpResponse response, Cache<CacheKey, CachedResponse> responses,
+                                       Map<String, Set<CacheKey>> keysByUser, CacheKey key, String ifNoneMatch, Config config) {
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                // An unknown length (chunked or streamed) would have to be buffered whole before it could be measured
+                long contentLength = getHeaders().getContentLength();
+                if (getStatusCode() != HttpStatus.OK || eTagOf(getHeaders()) == null || maxAge(getHeaders()) == null
+                        || contentLength < 0 || contentLength > config.getMaxBodySize()) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            String eTag = store(responses, keysByUser, key, getHeaders(), bytes, config);
+                            if (matches(ifNoneMatch, eTag)) {
+                                return notModified(getDelegate(), getHeaders());
+                            }
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+    }
+
+    // Returns the stored ETag, or null when the response is not cacheable
+    private String store(Cache<CacheKey, CachedResponse> responses, Map<String, Set<CacheKey>> keysByUser, CacheKey key,
+                         HttpHeaders responseHeaders, byte[] body, Config config) {
+        String eTag = eTagOf(responseHeaders);
+        Duration maxAge = maxAge(responseHeaders);
+        if (eTag == null || maxAge == null) {
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(responseHeaders);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        Duration ttl = maxAge.compareTo(config.getTtl()) < 0 ? maxAge : config.getTtl();
+        responses.put(key, new CachedResponse(eTag, ttl, headers, body));
+        // Indexed after the put: an eviction in between leaves a dangling key, which invalidation tolerates
+        keysByUser.compute(key.userId(), (user, keys) -> {
+            Set<CacheKey> userKeys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+            userKeys.add(key);
+            return userKeys;
+        });
+        count(config, "stored");
+        return eTag;
+    }
+
+    // Strong validators only: weak ones don't promise byte-identical bodies
+    private static String eTagOf(HttpHeaders headers) {
+        String eTag = headers.getETag();
+        return eTag == null || eTag.startsWith("W/") ? null : eTag;
+    }
+
+    private static Duration maxAge(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null || cacheControl.contains("no-store") || cacheControl.contains("no-cache")) {
+            return null;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        if (!matcher.find()) {
+            return null;
+        }
+        long seconds = Long.parseLong(matcher.group(1));
+        return seconds > 0 ? Duration.ofSeconds(seconds) : null;
+    }
+
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag) || trimmed.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response, HttpHeaders cachedHeaders) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cachedHeaders.getETag());
+        headers.setCacheControl(cachedHeaders.getCacheControl());
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        return response.setComplete();
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, CachedResponse cached) {
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void count(Config config, String outcome) {
+        meterRegistry.counter("gateway.response.cache", "route", String.valueOf(config.getRouteId()), "outcome", outcome).increment();
+    }
+}
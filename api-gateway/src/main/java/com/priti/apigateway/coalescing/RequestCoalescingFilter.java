@@ -0,0 +1,153 @@
+package com.priti.apigateway.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Identical GETs from the same user that arrive while one is already in flight (a client retry loop, a dashboard
+// mounting the same widget twice) wait for that request and get a copy of its response instead of going downstream.
+// Only responses with a Content-Length up to max-body-size are shared; streamed ones (SSE, NDJSON exports), chunked and
+// larger bodies pass through untouched, and their followers are released at once to make their own request.
+@Component
+@Slf4j
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private final Map<String, Mono<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxBodySize;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry,
+                                   @Value("${coalescing.enabled}") boolean enabled,
+                                   @Value("${coalescing.max-body-size}") int maxBodySize) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1; // must wrap the response before it is written
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String userId = request.getHeaders().getFirst("X-User-ID");
+        if (!enabled || request.getMethod() != HttpMethod.GET || userId == null) {
+            return chain.filter(exchange);
+        }
+        String key = coalescingKey(userId, request);
+        Sinks.One<SharedResponse> sink = Sinks.one();
+        Mono<SharedResponse> shared = sink.asMono();
+        Mono<SharedResponse> leader = inFlight.putIfAbsent(key, shared);
+
+        if (leader != null) {
+            meterRegistry.counter("gateway.coalesced", "route", routeId(exchange)).increment();
+            return leader
+                    .flatMap(response -> write(exchange.getResponse(), response).thenReturn(true))
+                    .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(true))) // leader's response was not shareable
+                    .then();
+        }
+        return chain.filter(exchange.mutate().response(capturing(exchange.getResponse(), sink)).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, shared);
+                    sink.tryEmitEmpty(); // no-op when the response was already shared
+                });
+    }
+
+    // Accept and Accept-Encoding change the body, so requests differing in them are not interchangeable
+    private String coalescingKey(String userId, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return userId + " " + request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                + " " + headers.getFirst(HttpHeaders.ACCEPT) + " " + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    // Buffers the leader's body when it is small and complete, hands a copy to the followers and then writes it to
+    // the leader's own client as usual. Anything else is written as-is, and the followers stop waiting right away
+    // instead of for the whole stream.
+    private ServerHttpResponse capturing(ServerHttpResponse response, Sinks.One<SharedResponse> sink) {
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isShareable()) {
+                    sink.tryEmitEmpty();
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+                            HttpHeaders headers = new HttpHeaders();
+                            headers.putAll(getHeaders());
+                            sink.tryEmitValue(new SharedResponse(getStatusCode(), headers, bytes));
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                sink.tryEmitEmpty(); // a streaming response (e.g. SSE), never shared
+                return super.writeAndFlushWith(body);
+            }
+
+            @Override
+            public Mono<Void> setComplete() {
+                sink.tryEmitEmpty();
+                return super.setComplete();
+            }
+
+            private boolean isShareable() {
+                long contentLength = getHeaders().getContentLength();
+                MediaType contentType = getHeaders().getContentType();
+                return getStatusCode() != null && contentLength >= 0 && contentLength <= maxBodySize
+                        && (contentType == null || (!MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                        && !MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)));
+            }
+        };
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        shared.headers().forEach((name, values) -> {
+            if (!HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route == null ? "unknown" : route.getId();
+    }
+}
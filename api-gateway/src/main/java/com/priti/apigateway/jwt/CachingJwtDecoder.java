@@ -0,0 +1,63 @@
+package com.priti.apigateway.jwt;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// A dashboard sends the same bearer token on every request until it expires, so the verified Jwt is kept by token hash
+// and the RSA signature check runs once per token. Entries expire no later than the token itself; failed verifications
+// are never cached, and concurrent first requests with the same token share one verification.
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+    private final ReactiveJwtDecoder delegate;
+    private final AsyncCache<String, Jwt> verifiedTokenCache;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, AsyncCache<String, Jwt> verifiedTokenCache, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.hitTimer = verificationTimer(meterRegistry, "hit");
+        this.missTimer = verificationTimer(meterRegistry, "miss");
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder("gateway.jwt.verification")
+                .description("Time to decode and verify a bearer token")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String key = hash(token);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean verified = new AtomicBoolean(); // set only by the caller that runs the verification
+            return Mono.fromFuture(() -> verifiedTokenCache.get(key, (k, executor) -> {
+                        verified.set(true);
+                        return delegate.decode(token).toFuture();
+                    }), true) // a cancelled request must not cancel the verification other requests share
+                    .doOnTerminate(() -> (verified.get() ? missTimer : hitTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        }).onErrorMap(CompletionException.class, Throwable::getCause); // keep the JwtException the entry point expects
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
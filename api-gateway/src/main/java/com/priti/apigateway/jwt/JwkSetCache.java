@@ -0,0 +1,146 @@
+package com.priti.apigateway.jwt;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Keycloak's signing keys, kept fresh in the background so requests never wait on the JWKS endpoint:
+// pre-warmed at startup, refreshed every refresh-interval, and served stale for up to max-stale when Keycloak
+// is unreachable. A token signed with an unknown kid (key rotation) forces a refresh, at most once per min-refresh-interval.
+@Component
+@Slf4j
+public class JwkSetCache {
+    private record Snapshot(JWKSet jwkSet, Instant fetchedAt) {
+    }
+
+    private final WebClient webClient = WebClient.create(); // not the @LoadBalanced builder: Keycloak is not registered in Eureka
+    private final MeterRegistry meterRegistry;
+    private final String jwkSetUri;
+    private final Duration refreshInterval;
+    private final Duration maxStale;
+    private final Duration minRefreshInterval;
+    private final Duration timeout;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<Mono<JWKSet>> inFlight = new AtomicReference<>();
+    private volatile Instant lastForcedRefresh = Instant.EPOCH;
+    private volatile Disposable backgroundRefresh;
+
+    public JwkSetCache(MeterRegistry meterRegistry,
+                       @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                       @Value("${jwt.jwks.refresh-interval}") Duration refreshInterval,
+                       @Value("${jwt.jwks.max-stale}") Duration maxStale,
+                       @Value("${jwt.jwks.min-refresh-interval}") Duration minRefreshInterval,
+                       @Value("${jwt.jwks.timeout}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.jwkSetUri = jwkSetUri;
+        this.refreshInterval = refreshInterval;
+        this.maxStale = maxStale;
+        this.minRefreshInterval = minRefreshInterval;
+        this.timeout = timeout;
+        Gauge.builder("gateway.jwks.age", this, cache -> {
+                    Snapshot current = cache.snapshot.get();
+                    return current == null ? -1 : Duration.between(current.fetchedAt(), Instant.now()).toSeconds();
+                })
+                .description("Seconds since the JWK set was last fetched from Keycloak (-1 before the first fetch)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        refresh().subscribe(
+                jwkSet -> log.info("Pre-warmed {} signing keys from {}", jwkSet.size(), jwkSetUri),
+                e -> log.warn("Could not pre-warm signing keys, the first request will fetch them: {}", e.getMessage()));
+        backgroundRefresh = Flux.interval(refreshInterval, refreshInterval)
+                .concatMap(tick -> refresh().onErrorResume(e -> Mono.empty())) // failures are logged and counted in refresh()
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (backgroundRefresh != null) {
+            backgroundRefresh.dispose();
+        }
+    }
+
+    // Served from memory; only waits on Keycloak when there are no usable keys at all
+    public Mono<JWKSet> get() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            Duration age = Duration.between(current.fetchedAt(), Instant.now());
+            if (age.compareTo(refreshInterval.multipliedBy(2)) <= 0) {
+                return Mono.just(current.jwkSet());
+            }
+            if (age.compareTo(maxStale) <= 0) {
+                refresh().subscribe(jwkSet -> { }, e -> { }); // stale-while-revalidate
+                return Mono.just(current.jwkSet());
+            }
+        }
+        return refresh();
+    }
+
+    // For a kid we don't know yet; rate limited so forged kids cannot make us hammer Keycloak
+    public Mono<JWKSet> refreshForUnknownKey() {
+        Instant now = Instant.now();
+        if (Duration.between(lastForcedRefresh, now).compareTo(minRefreshInterval) < 0) {
+            return get();
+        }
+        lastForcedRefresh = now;
+        return refresh();
+    }
+
+    // Single-flight: concurrent callers share one fetch. On failure the previous keys stay in place for up to max-stale.
+    private Mono<JWKSet> refresh() {
+        Mono<JWKSet> fetch = inFlight.get();
+        if (fetch != null) {
+            return fetch;
+        }
+        Mono<JWKSet> newFetch = webClient.get()
+                .uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(timeout)
+                .map(this::parse)
+                .doOnNext(jwkSet -> {
+                    snapshot.set(new Snapshot(jwkSet, Instant.now()));
+                    meterRegistry.counter("gateway.jwks.refresh", "outcome", "success").increment();
+                })
+                .onErrorResume(e -> {
+                    meterRegistry.counter("gateway.jwks.refresh", "outcome", "failure").increment();
+                    Snapshot current = snapshot.get();
+                    if (current != null && Duration.between(current.fetchedAt(), Instant.now()).compareTo(maxStale) <= 0) {
+                        log.warn("JWK set refresh failed, keeping keys fetched at {}: {}", current.fetchedAt(), e.getMessage());
+                        return Mono.just(current.jwkSet());
+                    }
+                    log.error("JWK set refresh failed and no usable keys are cached: {}", e.getMessage());
+                    return Mono.error(e);
+                })
+                .doFinally(signal -> inFlight.set(null))
+                .cache();
+        return inFlight.compareAndSet(null, newFetch) ? newFetch : refresh();
+    }
+
+    private JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new RuntimeException("Invalid JWK set from " + jwkSetUri, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.priti.apigateway.jwt;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Configuration
+public class JwtDecoderConfig {
+    @Value("${jwt.verified-cache.max-size}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.max-ttl}")
+    private Duration verifiedCacheMaxTtl;
+
+    @Bean
+    public AsyncCache<String, Jwt> verifiedTokenCache(MeterRegistry meterRegistry) {
+        AsyncCache<String, Jwt> cache = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(Expiry.creating((String tokenHash, Jwt jwt) -> untilExpiry(jwt)))
+                .recordStats()
+                .buildAsync();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokenCache");
+    } // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under /actuator/metrics
+
+    private Duration untilExpiry(Jwt jwt) {
+        if (jwt.getExpiresAt() == null) {
+            return verifiedCacheMaxTtl;
+        }
+        Duration remaining = Duration.between(Instant.now(), jwt.getExpiresAt());
+        return remaining.isNegative() ? Duration.ZERO : (remaining.compareTo(verifiedCacheMaxTtl) < 0 ? remaining : verifiedCacheMaxTtl);
+    }
+
+    // Replaces Spring Boot's default decoder, which fetches the JWK set lazily on the first request. Keys come from
+    // JwkSetCache; the signature check itself stays with Nimbus, behind the verified token cache.
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwkSetCache jwkSetCache, AsyncCache<String, Jwt> verifiedTokenCache, MeterRegistry meterRegistry) {
+        NimbusReactiveJwtDecoder nimbusDecoder = NimbusReactiveJwtDecoder
+                .withJwkSource(signedJWT -> jwkSetCache.get()
+                        .flatMapMany(jwkSet -> {
+                            List<JWK> keys = select(jwkSet, signedJWT);
+                            return keys.isEmpty()
+                                    ? jwkSetCache.refreshForUnknownKey().flatMapIterable(refreshed -> select(refreshed, signedJWT))
+                                    : Flux.fromIterable(keys);
+                        }))
+                .build(); // default timestamp validation, as with the auto-configured decoder
+        return new CachingJwtDecoder(nimbusDecoder, verifiedTokenCache, meterRegistry);
+    }
+
+    private static List<JWK> select(JWKSet jwkSet, SignedJWT signedJWT) {
+        JWKMatcher matcher = JWKMatcher.forJWSHeader(signedJWT.getHeader());
+        return matcher == null ? List.of() : new JWKSelector(matcher).select(jwkSet); // null for algorithms we cannot verify
+    }
+}
@@ -0,0 +1,43 @@
+package com.priti.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// In-memory token buckets, one per user and route. Idle buckets are evicted by the cache, which is
+// harmless: a bucket that has been idle that long would have refilled to its burst capacity anyway.
+public class LocalTokenBucketStore implements TokenBucketStore {
+    private final Cache<String, TokenBucket> buckets;
+
+    public LocalTokenBucketStore(Cache<String, TokenBucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity, int requestedTokens) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(burstCapacity));
+        return Mono.just(bucket.tryConsume(replenishRate, burstCapacity, requestedTokens));
+    }
+
+    public static class TokenBucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(int burstCapacity) {
+            this.tokens = burstCapacity;
+        }
+
+        synchronized RateLimitDecision tryConsume(int replenishRate, int burstCapacity, int requestedTokens) {
+            long now = System.nanoTime();
+            tokens = Math.min(burstCapacity, tokens + (now - refilledAt) / 1e9 * replenishRate);
+            refilledAt = now;
+            if (tokens >= requestedTokens) {
+                tokens -= requestedTokens;
+                return new RateLimitDecision(true, (long) tokens, Duration.ZERO);
+            }
+            long waitMillis = (long) Math.ceil((requestedTokens - tokens) * 1000 / replenishRate);
+            return new RateLimitDecision(false, 0, Duration.ofMillis(waitMillis));
+        }
+    }
+}
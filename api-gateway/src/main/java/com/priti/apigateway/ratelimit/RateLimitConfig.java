@@ -0,0 +1,58 @@
+package com.priti.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+
+@Configuration
+public class RateLimitConfig {
+    @Value("${rate-limit.replenish-rate}")
+    private int replenishRate;
+
+    @Value("${rate-limit.burst-capacity}")
+    private int burstCapacity;
+
+    @Value("${rate-limit.local.max-buckets}")
+    private long maxBuckets;
+
+    @Value("${rate-limit.local.idle-timeout}")
+    private Duration idleTimeout;
+
+    // Keyed by the verified token's subject: X-User-ID comes from the client, so it could name any bucket
+    @Bean
+    public KeyResolver userKeyResolver() {
+        return exchange -> exchange.getPrincipal()
+                .ofType(JwtAuthenticationToken.class)
+                .map(authentication -> authentication.getToken().getSubject());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TokenBucketStore.class)
+    public TokenBucketStore localTokenBucketStore(MeterRegistry meterRegistry) {
+        Cache<String, LocalTokenBucketStore.TokenBucket> buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        return new LocalTokenBucketStore(CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets"));
+    } // Limits are per gateway instance; declare a shared TokenBucketStore bean to enforce them across instances
+
+    @Bean
+    public UserRateLimiter userRateLimiter(TokenBucketStore tokenBucketStore, MeterRegistry meterRegistry,
+                                           ConfigurationService configurationService) {
+        UserRateLimiter.Config defaultConfig = new UserRateLimiter.Config();
+        defaultConfig.setReplenishRate(replenishRate);
+        defaultConfig.setBurstCapacity(burstCapacity);
+        return new UserRateLimiter(tokenBucketStore, meterRegistry, configurationService, defaultConfig);
+    }
+}
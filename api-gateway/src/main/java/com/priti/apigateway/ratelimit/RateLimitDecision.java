@@ -0,0 +1,6 @@
+package com.priti.apigateway.ratelimit;
+
+import java.time.Duration;
+
+public record RateLimitDecision(boolean allowed, long remainingTokens, Duration retryAfter) {
+}
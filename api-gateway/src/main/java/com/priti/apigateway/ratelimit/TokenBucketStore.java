@@ -0,0 +1,10 @@
+package com.priti.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+// Where the per-user token buckets live. LocalTokenBucketStore keeps them in this gateway instance; declare another
+// TokenBucketStore bean (e.g. backed by Redis) to share the limits across gateway instances.
+public interface TokenBucketStore {
+
+    Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity, int requestedTokens);
+}
@@ -0,0 +1,69 @@
+package com.priti.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Token bucket per user (token subject) and route, used through the RequestRateLimiter route filter. The rate-limit defaults
+// apply to every route; a route can override them with user-rate-limiter.* args on the filter.
+public class UserRateLimiter extends AbstractRateLimiter<UserRateLimiter.Config> {
+    public static final String CONFIGURATION_PROPERTY_NAME = "user-rate-limiter";
+
+    private final TokenBucketStore tokenBucketStore;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig;
+
+    public UserRateLimiter(TokenBucketStore tokenBucketStore, MeterRegistry meterRegistry,
+                           ConfigurationService configurationService, Config defaultConfig) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.tokenBucketStore = tokenBucketStore;
+        this.meterRegistry = meterRegistry;
+        this.defaultConfig = defaultConfig;
+    }
+
+    // Route args are bound onto a copy of the defaults, so a route only needs to list what it changes
+    @Override
+    public Config newConfig() {
+        Config config = new Config();
+        config.setReplenishRate(defaultConfig.getReplenishRate());
+        config.setBurstCapacity(defaultConfig.getBurstCapacity());
+        config.setRequestedTokens(defaultConfig.getRequestedTokens());
+        return config;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return tokenBucketStore.tryConsume(routeId + "|" + id, config.getReplenishRate(), config.getBurstCapacity(), config.getRequestedTokens())
+                .map(decision -> {
+                    meterRegistry.counter("gateway.ratelimit", "route", routeId, "outcome", decision.allowed() ? "allowed" : "rejected")
+                            .increment();
+                    return new Response(decision.allowed(), headers(config, decision));
+                });
+    }
+
+    // Copied onto the response by the RequestRateLimiter filter; Retry-After tells a rejected client when to come back
+    private Map<String, String> headers(Config config, RateLimitDecision decision) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-RateLimit-Remaining", String.valueOf(decision.remainingTokens()));
+        headers.put("X-RateLimit-Replenish-Rate", String.valueOf(config.getReplenishRate()));
+        headers.put("X-RateLimit-Burst-Capacity", String.valueOf(config.getBurstCapacity()));
+        if (!decision.allowed()) {
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000)));
+        }
+        return headers;
+    }
+
+    @Data
+    public static class Config {
+        private int replenishRate; // tokens per second
+        private int burstCapacity;
+        private int requestedTokens = 1;
+    }
+}
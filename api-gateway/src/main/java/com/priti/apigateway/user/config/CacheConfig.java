@@ -0,0 +1,30 @@
+package com.priti.apigateway.user.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    @Value("${user.sync.cache.max-size}")
+    private long syncedUserMaxSize;
+
+    @Value("${user.sync.cache.ttl}")
+    private Duration syncedUserTtl;
+
+    @Bean
+    public AsyncCache<String, Boolean> syncedUserCache(MeterRegistry meterRegistry) {
+        AsyncCache<String, Boolean> cache = Caffeine.newBuilder()
+                .maximumSize(syncedUserMaxSize)
+                .expireAfterWrite(syncedUserTtl) // a user deleted in user-service is re-checked at most this late
+                .recordStats()
+                .buildAsync();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "syncedUserCache");
+    } // keycloakIds known to exist in user-service; exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+}
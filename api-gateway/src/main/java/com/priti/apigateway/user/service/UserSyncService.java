@@ -0,0 +1,9 @@
+package com.priti.apigateway.user.service;
+
+import com.priti.apigateway.user.dto.UserRequestDTO;
+import reactor.core.publisher.Mono;
+
+public interface UserSyncService {
+
+    Mono<Void> ensureSynced(String userId, UserRequestDTO registerUserRequest);
+}
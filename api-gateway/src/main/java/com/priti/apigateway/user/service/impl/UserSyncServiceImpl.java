@@ -0,0 +1,54 @@
+package com.priti.apigateway.user.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.priti.apigateway.user.dto.UserRequestDTO;
+import com.priti.apigateway.user.service.UserService;
+import com.priti.apigateway.user.service.UserSyncService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSyncServiceImpl implements UserSyncService {
+    private final UserService userService;
+    private final AsyncCache<String, Boolean> syncedUserCache;
+    private final MeterRegistry meterRegistry;
+
+    // Steady-state requests are answered from the cache. On a miss, concurrent requests for the same user share
+    // one in-flight validate/register future, so a burst of first requests triggers a single call to user-service.
+    // Only a successful sync is cached: failed or empty futures are dropped, and the next request tries again.
+    // suppressCancel: a caller that disconnects must not cancel the shared future the other waiters depend on.
+    @Override
+    public Mono<Void> ensureSynced(String userId, UserRequestDTO registerUserRequest) {
+        return Mono.fromFuture(() -> syncedUserCache.get(userId, (id, executor) -> sync(id, registerUserRequest).toFuture()), true)
+                .then();
+    }
+
+    private Mono<Boolean> sync(String userId, UserRequestDTO registerUserRequest) {
+        return userService.validateUser(userId)
+                .flatMap(exist -> {
+                    if (exist) {
+                        log.info("User already exists, so skipping synchronization.");
+                        return outcome("existing");
+                    }
+                    //If user does not exist register user otherwise say user already exist and return from there
+                    if (registerUserRequest == null) {
+                        log.error("Failed to parse user details from token for user: {}", userId);
+                        meterRegistry.counter("gateway.user.sync", "outcome", "unparsable").increment();
+                        return Mono.empty(); // not cached
+                    }
+                    return userService.registerUser(registerUserRequest)
+                            .then(outcome("registered"));
+                })
+                .doOnError(e -> meterRegistry.counter("gateway.user.sync", "outcome", "failed").increment());
+    }
+
+    private Mono<Boolean> outcome(String outcome) {
+        meterRegistry.counter("gateway.user.sync", "outcome", outcome).increment();
+        return Mono.just(true);
+    }
+}
@@ -0,0 +1,124 @@
+package com.priti.apigateway.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.priti.apigateway.user.dto.UserRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of getting the user's claims in KeycloakUserSyncFilter: re-parsing the Authorization header
+ * (the previous implementation, on top of the decoding Spring Security already did) versus reading them from the
+ * authenticated Jwt principal. The difference is the CPU saved on every request through the gateway.
+ * Not a unit test: run {@link #main} from the test classpath after {@code mvn test-compile}, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main JwtClaimsBenchmark -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtClaimsBenchmark {
+
+    private String authorizationHeader;
+    private Jwt principal;
+
+    // A token shaped like the ones Keycloak issues for the fitness-oauth2 realm
+    @Setup
+    public void setUp() throws Exception {
+        Instant issuedAt = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("http://localhost:8181/realms/fitness-oauth2")
+                .subject("3f2b8c1e-7d4a-4e9b-a1c6-5d8e2f9b0a17")
+                .audience("account")
+                .issueTime(Date.from(issuedAt))
+                .expirationTime(Date.from(issuedAt.plusSeconds(300)))
+                .jwtID("onrtac:8f4e6c3a-2b1d-4c5e-9f7a-1d2e3f4a5b6c")
+                .claim("typ", "Bearer")
+                .claim("azp", "oauth2-pkce-client")
+                .claim("sid", "b7c1d2e3-f4a5-4b6c-8d7e-9f0a1b2c3d4e")
+                .claim("acr", "1")
+                .claim("allowed-origins", List.of("http://localhost:5173"))
+                .claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "default-roles-fitness-oauth2")))
+                .claim("resource_access", Map.of("account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile"))))
+                .claim("scope", "openid email profile")
+                .claim("email_verified", true)
+                .claim("name", "Priti Aryal")
+                .claim("preferred_username", "priti")
+                .claim("given_name", "Priti")
+                .claim("family_name", "Aryal")
+                .claim("email", "priti@example.com")
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        signedJWT.sign(new MACSigner(new byte[32]));
+        authorizationHeader = "Bearer " + signedJWT.serialize();
+
+        // What oauth2ResourceServer().jwt() hands to the filter, decoded once per request by the security chain
+        principal = Jwt.withTokenValue(signedJWT.serialize())
+                .headers(headers -> headers.putAll(signedJWT.getHeader().toJSONObject()))
+                .claims(jwtClaims -> jwtClaims.putAll(MappedJwtClaimSetConverter.withDefaults(Map.of()).convert(claims.getClaims())))
+                .build();
+
+        if (!legacyHeaderParsing().getEmail().equals(principalClaims().getEmail())) {
+            throw new IllegalStateException("Both paths should read the same claims");
+        }
+    }
+
+    // The previous getUserDetails: strip the prefix, base64-decode and JSON-parse the token again
+    @Benchmark
+    public UserRequestDTO legacyHeaderParsing() throws Exception {
+        String tokenWithoutBearer = authorizationHeader.replace("Bearer ", "").trim();
+        SignedJWT signedJWT = SignedJWT.parse(tokenWithoutBearer);
+        JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+
+        UserRequestDTO registerUserRequest = new UserRequestDTO();
+        registerUserRequest.setEmail(claims.getStringClaim("email"));
+        registerUserRequest.setKeycloakId(claims.getStringClaim("sub"));
+        registerUserRequest.setPassword("defaultPassword");
+        registerUserRequest.setFirstName(claims.getStringClaim("given_name"));
+        registerUserRequest.setLastName(claims.getStringClaim("family_name"));
+        return registerUserRequest;
+    }
+
+    // The current getUserDetails: map lookups on the already-decoded principal
+    @Benchmark
+    public UserRequestDTO principalClaims() {
+        UserRequestDTO registerUserRequest = new UserRequestDTO();
+        registerUserRequest.setEmail(principal.getClaimAsString("email"));
+        registerUserRequest.setKeycloakId(principal.getSubject());
+        registerUserRequest.setPassword("defaultPassword");
+        registerUserRequest.setFirstName(principal.getClaimAsString("given_name"));
+        registerUserRequest.setLastName(principal.getClaimAsString("family_name"));
+        return registerUserRequest;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtClaimsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
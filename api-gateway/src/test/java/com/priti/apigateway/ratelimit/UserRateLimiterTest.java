@@ -0,0 +1,93 @@
+package com.priti.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class UserRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        UserRateLimiter.Config defaultConfig = new UserRateLimiter.Config();
+        defaultConfig.setReplenishRate(1);
+        defaultConfig.setBurstCapacity(3);
+        rateLimiter = new UserRateLimiter(new LocalTokenBucketStore(Caffeine.newBuilder().build()), meterRegistry,
+                mock(ConfigurationService.class), defaultConfig);
+    }
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            Response response = isAllowed("activity-service", "user-1");
+            assertTrue(response.isAllowed());
+            assertEquals(String.valueOf(remaining), response.getHeaders().get("X-RateLimit-Remaining"));
+        }
+
+        Response rejected = isAllowed("activity-service", "user-1");
+
+        assertFalse(rejected.isAllowed());
+        assertEquals("0", rejected.getHeaders().get("X-RateLimit-Remaining"));
+        assertEquals("1", rejected.getHeaders().get("X-RateLimit-Replenish-Rate"));
+        assertEquals("3", rejected.getHeaders().get("X-RateLimit-Burst-Capacity"));
+        assertEquals("1", rejected.getHeaders().get(HttpHeaders.RETRY_AFTER));
+        assertEquals(3, meterRegistry.get("gateway.ratelimit").tag("outcome", "allowed").counter().count());
+        assertEquals(1, meterRegistry.get("gateway.ratelimit").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void keepsSeparateBucketsPerUserAndRoute() {
+        for (int i = 0; i < 3; i++) {
+            isAllowed("activity-service", "user-1");
+        }
+
+        assertFalse(isAllowed("activity-service", "user-1").isAllowed());
+        assertTrue(isAllowed("activity-service", "user-2").isAllowed());
+        assertTrue(isAllowed("recommendation-ai-service", "user-1").isAllowed());
+    }
+
+    // Route args are bound onto newConfig(), so an override keeps the defaults it does not name
+    @Test
+    void appliesRouteOverride() {
+        UserRateLimiter.Config upload = rateLimiter.newConfig();
+        upload.setRequestedTokens(3);
+        rateLimiter.getConfig().put("activity-upload", upload);
+
+        assertTrue(isAllowed("activity-upload", "user-1").isAllowed());
+        Response rejected = isAllowed("activity-upload", "user-1");
+
+        assertFalse(rejected.isAllowed());
+        assertEquals("3", rejected.getHeaders().get("X-RateLimit-Burst-Capacity"));
+        assertEquals("3", rejected.getHeaders().get(HttpHeaders.RETRY_AFTER)); // three tokens at one per second
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        UserRateLimiter.Config fast = rateLimiter.newConfig();
+        fast.setReplenishRate(100);
+        fast.setBurstCapacity(1);
+        rateLimiter.getConfig().put("fast", fast);
+
+        assertTrue(isAllowed("fast", "user-1").isAllowed());
+        assertFalse(isAllowed("fast", "user-1").isAllowed());
+        Thread.sleep(50);
+
+        assertTrue(isAllowed("fast", "user-1").isAllowed());
+    }
+
+    private Response isAllowed(String routeId, String userId) {
+        return rateLimiter.isAllowed(routeId, userId).block();
+    }
+}
@@ -0,0 +1,63 @@
+package com.priti.recommendationaiservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.priti.recommendationaiservice.model.CachedAnalysis;
+import com.priti.recommendationaiservice.model.Recommendation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+    @Value("${recommendation.cache.max-size}")
+    private long analysisCacheMaxSize;
+
+    @Value("${recommendation.cache.ttl}")
+    private Duration analysisCacheTtl;
+
+    @Value("${recommendation.read-cache.max-size}")
+    private long recommendationCacheMaxSize;
+
+    @Value("${recommendation.read-cache.user-max-size}")
+    private long userRecommendationsCacheMaxSize;
+
+    @Value("${recommendation.read-cache.user-ttl}")
+    private Duration userRecommendationsCacheTtl;
+
+    @Bean
+    public Cache<String, CachedAnalysis> analysisCache(MeterRegistry meterRegistry) {
+        Cache<String, CachedAnalysis> cache = Caffeine.newBuilder()
+                .maximumSize(analysisCacheMaxSize)
+                .expireAfterWrite(analysisCacheTtl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "analysisCache");
+    }
+
+    // Recommendations are immutable once written, so entries only leave by size eviction or regeneration
+    @Bean
+    public Cache<String, Recommendation> recommendationCache(MeterRegistry meterRegistry) {
+        Cache<String, Recommendation> cache = Caffeine.newBuilder()
+                .maximumSize(recommendationCacheMaxSize)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "recommendationCache");
+    }
+
+    // A user's list grows as other instances store recommendations, so it also expires
+    @Bean
+    public Cache<String, List<Recommendation>> userRecommendationsCache(MeterRegistry meterRegistry) {
+        Cache<String, List<Recommendation>> cache = Caffeine.newBuilder()
+                .maximumSize(userRecommendationsCacheMaxSize)
+                .expireAfterWrite(userRecommendationsCacheTtl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "userRecommendationsCache");
+    }
+}
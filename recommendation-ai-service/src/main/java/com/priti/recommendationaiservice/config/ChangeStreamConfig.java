@@ -0,0 +1,56 @@
+package com.priti.recommendationaiservice.config;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.priti.recommendationaiservice.model.Recommendation;
+import com.priti.recommendationaiservice.service.RecommendationNotifier;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "recommendation.push.change-stream.enabled", havingValue = "true")
+public class ChangeStreamConfig {
+
+    // Recommendations saved by other instances reach this instance's waiters through a change stream on the collection
+    @Bean
+    public MessageListenerContainer recommendationChangeStreamContainer(MongoTemplate mongoTemplate, RecommendationNotifier recommendationNotifier) {
+        // Kept out of the context: an Executor bean would replace Boot's applicationTaskExecutor
+        ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("recommendation-change-stream").factory());
+        MessageListenerContainer container = new DefaultMessageListenerContainer(mongoTemplate, executor,
+                error -> log.error("Recommendation change stream failed", error)) {
+            @Override
+            public void stop() {
+                super.stop();
+                executor.shutdownNow();
+            }
+        };
+        MessageListener<ChangeStreamDocument<Document>, Recommendation> listener = message -> {
+            if (message.getBody() != null) {
+                recommendationNotifier.publish(message.getBody());
+            }
+        };
+        ChangeStreamRequest<Recommendation> request = ChangeStreamRequest.builder(listener)
+                .collection("recommendations")
+                .filter(Aggregation.newAggregation(Aggregation.match(where("operationType").in("insert", "replace", "update"))))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, Recommendation.class);
+        container.start(); // the container does not auto-start; the context still stops it on shutdown
+        return container;
+    }
+}
@@ -1,14 +1,28 @@
 package com.priti.recommendationaiservice.config;
 
+import com.priti.recommendationaiservice.converter.ActivityBinaryMessageConverter;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class RabbitMqConfig {
@@ -21,11 +35,79 @@ public class RabbitMqConfig {
     @Value("${rabbitmq.queue.name}")
     private String queue;
 
+    @Value("${rabbitmq.retry.queue.name}")
+    private String retryQueue;
+
+    @Value("${rabbitmq.retry.delays}")
+    private List<Duration> retryDelays;
+
+    @Value("${rabbitmq.queue.max-priority}")
+    private int maxPriority;
+
+    @Value("${rabbitmq.dead-letter.exchange}")
+    private String deadLetterExchange;
+
+    @Value("${rabbitmq.dead-letter.queue}")
+    private String deadLetterQueue;
+
+    @Value("${rabbitmq.dead-letter.routing-key}")
+    private String deadLetterRoutingKey;
+
+    @Value("${rabbitmq.listener.concurrency}")
+    private int listenerConcurrency;
+
+    @Value("${rabbitmq.listener.max-concurrency}")
+    private int listenerMaxConcurrency;
+
+    @Value("${rabbitmq.listener.prefetch}")
+    private int listenerPrefetch;
+
+    @Value("${rabbitmq.wire-format}")
+    private String wireFormat;
+
+
+    public static String retryQueueName(String retryQueue, int attempt) {
+        return retryQueue + "." + attempt;
+    }
 
     @Bean
     public Queue activityQueue() {
-        return new Queue(queue, true);
-    } //It declares a RabbitMQ queue named "activity-queue" that is durable (i.e., it will survive a broker restart as we have set true).
+        return QueueBuilder.durable(queue)
+                .maxPriority(maxPriority)
+                .deadLetterExchange(deadLetterExchange)
+                .deadLetterRoutingKey(deadLetterRoutingKey)
+                .build();
+    } // Durable priority queue; rejected (poison) messages are dead-lettered instead of redelivered forever.
+
+    @Bean
+    public Declarables activityRetryQueues() {
+        List<Declarable> retryQueues = new ArrayList<>();
+        for (int attempt = 1; attempt <= retryDelays.size(); attempt++) {
+            retryQueues.add(QueueBuilder.durable(retryQueueName(retryQueue, attempt))
+                    .ttl((int) retryDelays.get(attempt - 1).toMillis())
+                    .deadLetterExchange(exchange)
+                    .deadLetterRoutingKey(routingKey)
+                    .build());
+        }
+        return new Declarables(retryQueues);
+    } // One delay queue per attempt with growing TTLs and no consumers: messages wait out the TTL, then return to the activity queue.
+
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchange);
+    }
+
+    @Bean
+    public Queue deadLetterQueue() {
+        return QueueBuilder.durable(deadLetterQueue).build();
+    } // Parked until replayed through the dead-letter endpoint.
+
+    @Bean
+    public Binding deadLetterBinding(Queue deadLetterQueue, DirectExchange deadLetterExchange) {
+        return BindingBuilder.bind(deadLetterQueue)
+                .to(deadLetterExchange)
+                .with(deadLetterRoutingKey);
+    }
 
     @Bean
     public DirectExchange activityExchange() {
@@ -41,6 +123,25 @@ public class RabbitMqConfig {
 
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
-    }// This will do job of converting java object to Json before sending it to the queue. So now we dont have to manually serialize or deserialize.
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ActivityBinaryMessageConverter binary = new ActivityBinaryMessageConverter();
+        ContentTypeDelegatingMessageConverter converter =
+                new ContentTypeDelegatingMessageConverter("binary".equalsIgnoreCase(wireFormat) ? binary : json);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(ActivityBinaryMessageConverter.CONTENT_TYPE, binary);
+        return converter;
+    }// Activities arrive as JSON or compact binary and are decoded by content type; retries are re-published in rabbitmq.wire-format.
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory activityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory); // keeps the spring.rabbitmq.* settings and the message converter
+        factory.setConcurrentConsumers(listenerConcurrency);
+        factory.setMaxConcurrentConsumers(listenerMaxConcurrency);
+        factory.setPrefetchCount(listenerPrefetch);
+        factory.setTaskExecutor(new VirtualThreadTaskExecutor("activity-listener-"));
+        factory.setDefaultRequeueRejected(false); // a failing message goes to the dead-letter queue, not back to the head of the queue
+        return factory;
+    }// Consumers spend most of their time waiting on Gemini, so each one runs on a cheap virtual thread.
 }
@@ -0,0 +1,35 @@
+package com.priti.recommendationaiservice.config;
+
+import com.priti.recommendationaiservice.service.impl.GeminiServiceImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ResilienceConfig {
+    @Value("${gemini.api.circuit-breaker.failure-rate-threshold}")
+    private float failureRateThreshold;
+
+    @Value("${gemini.api.circuit-breaker.sliding-window-size}")
+    private int slidingWindowSize;
+
+    @Value("${gemini.api.circuit-breaker.wait-in-open-state}")
+    private Duration waitInOpenState;
+
+    @Bean
+    public CircuitBreaker geminiCircuitBreaker() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .recordException(GeminiServiceImpl::isTransient) // a bad request is our fault, not an upstream outage
+                .build();
+        return CircuitBreaker.of("gemini", config);
+    }
+}
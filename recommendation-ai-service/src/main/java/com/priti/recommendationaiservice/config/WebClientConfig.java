@@ -0,0 +1,45 @@
+package com.priti.recommendationaiservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+    @Value("${gemini.api.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${gemini.api.read-timeout}")
+    private Duration readTimeout;
+
+    @Value("${gemini.api.pool.max-connections}")
+    private int maxConnections;
+
+    @Value("${gemini.api.pool.pending-acquire-timeout}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${gemini.api.pool.max-idle-time}")
+    private Duration maxIdleTime;
+
+    @Bean
+    public WebClient geminiWebClient(WebClient.Builder webClientBuilder) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("gemini")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
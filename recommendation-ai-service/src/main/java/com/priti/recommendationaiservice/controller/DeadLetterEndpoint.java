@@ -0,0 +1,31 @@
+package com.priti.recommendationaiservice.controller;
+
+import com.priti.recommendationaiservice.dto.DeadLetterReplayDTO;
+import com.priti.recommendationaiservice.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Operator-only: served under /actuator/deadletters, which the gateway does not route
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "deadletters")
+public class DeadLetterEndpoint {
+    private final DeadLetterService deadLetterService;
+
+    @ReadOperation
+    public Map<String, Long> countDeadLetters() {
+        return Map.of("count", deadLetterService.countDeadLetters());
+    }
+
+    // Re-queues up to max dead-lettered activities (once the cause, e.g. a Gemini outage, is fixed)
+    @WriteOperation
+    public DeadLetterReplayDTO replay(@Nullable Integer max) {
+        return deadLetterService.replay(max);
+    }
+}
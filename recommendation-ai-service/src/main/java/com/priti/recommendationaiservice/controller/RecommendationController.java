@@ -1,14 +1,28 @@
 package com.priti.recommendationaiservice.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priti.recommendationaiservice.dto.RecommendationPageDTO;
+import com.priti.recommendationaiservice.dto.RecommendationSummaryDTO;
 import com.priti.recommendationaiservice.model.Recommendation;
 import com.priti.recommendationaiservice.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,14 +30,75 @@ import java.util.List;
 @RequestMapping("/api/recommendations")
 public class RecommendationController {
     private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${recommendation.push.heartbeat}")
+    private Duration heartbeat;
+
+    @Value("${recommendation.http.cache.max-age}")
+    private Duration cacheMaxAge;
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Recommendation>> getUserRecommendation(@PathVariable String userId) {
       return ResponseEntity.ok(recommendationService.getUserRecommendation(userId));
     }
 
+    // Newest first, summary fields only. The next page's cursor is returned in X-Next-Cursor.
+    @GetMapping("/user/{userId}/summaries")
+    public ResponseEntity<List<RecommendationSummaryDTO>> getUserRecommendationSummaries(@PathVariable String userId,
+                                                                                         @RequestParam(required = false) String after,
+                                                                                         @RequestParam(required = false) Integer limit) {
+        RecommendationPageDTO page = recommendationService.getUserRecommendationSummaries(userId, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getRecommendations());
+    }
+
+    // With an ETag on the response, a matching If-None-Match is answered 304 without a body
     @GetMapping("/activity/{activityId}")
     public ResponseEntity<Recommendation> getActivityRecommendation(@PathVariable String activityId) {
-        return ResponseEntity.ok(recommendationService.getActivityRecommendation(activityId));
+        Recommendation recommendation = recommendationService.getActivityRecommendation(activityId);
+        return ResponseEntity.ok()
+                .eTag(eTag(recommendation))
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePrivate()) // per user; the gateway cache keys on X-User-ID
+                .body(recommendation);
+    }
+
+    // Strong ETag over the response JSON, so a re-generated recommendation gets a new one
+    private String eTag(Object body) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not compute ETag", e);
+        }
+    }
+
+    // Long-poll: 200 with the recommendation as soon as it is stored, 204 if the timeout passes first
+    @GetMapping("/activity/{activityId}/await")
+    public Mono<ResponseEntity<Recommendation>> awaitActivityRecommendation(@PathVariable String activityId,
+                                                                            @RequestParam(required = false) String timeout) {
+        return recommendationService.awaitActivityRecommendation(activityId, parseTimeout(timeout))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.noContent().build());
+    }
+
+    // SSE: keep-alive comments while waiting, then one "recommendation" (or "timeout") event and the stream ends
+    @GetMapping(value = "/activity/{activityId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Recommendation>> streamActivityRecommendation(@PathVariable String activityId,
+                                                                              @RequestParam(required = false) String timeout) {
+        Mono<ServerSentEvent<Recommendation>> result = recommendationService.awaitActivityRecommendation(activityId, parseTimeout(timeout))
+                .map(recommendation -> ServerSentEvent.builder(recommendation).id(activityId).event("recommendation").build())
+                .defaultIfEmpty(ServerSentEvent.<Recommendation>builder().event("timeout").build())
+                .cache();
+        Flux<ServerSentEvent<Recommendation>> keepAlive = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.<Recommendation>builder().comment("waiting").build())
+                .takeUntilOther(result);
+        return Flux.merge(keepAlive, result);
+    }
+
+    private Duration parseTimeout(String timeout) {
+        return timeout == null ? null : DurationStyle.detectAndParse(timeout);
     }
 }
@@ -0,0 +1,311 @@
+package com.priti.recommendationaiservice.converter;
+
+import com.priti.recommendationaiservice.model.Activity;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Schema-versioned binary encoding of an activity event. Must stay in sync with the codec in activity-service.
+//
+// v1 layout: version byte, then id, userId, type (strings), duration, caloriesBurned (optional ints),
+// startTime, createdAt, updatedAt (optional timestamps), additionalMetrics (tagged value).
+// Strings are varint length + 1 (0 = null) followed by UTF-8; ints are zigzag varints behind a presence byte;
+// timestamps are zigzag varint epoch seconds (UTC-naive, like LocalDateTime) plus varint nanos.
+// Integer lists (heart rate, cadence...) are packed as zigzag varints, other numeric lists that survive
+// a float round trip (pace...) as little-endian float32s.
+public final class ActivityBinaryCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int NULL = 0, FALSE = 1, TRUE = 2, LONG = 3, DOUBLE = 4, STRING = 5, LIST = 6, MAP = 7, FLOATS = 8, INTS = 9;
+
+    private ActivityBinaryCodec() {
+    }
+
+    public static byte[] encode(Activity activity) {
+        Writer writer = new Writer();
+        writer.write(VERSION);
+        writer.string(activity.getId());
+        writer.string(activity.getUserId());
+        writer.string(activity.getType());
+        writer.optionalInt(activity.getDuration());
+        writer.optionalInt(activity.getCaloriesBurned());
+        writer.timestamp(activity.getStartTime());
+        writer.timestamp(activity.getCreatedAt());
+        writer.timestamp(activity.getUpdatedAt());
+        writer.value(activity.getAdditionalMetrics());
+        return writer.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Activity decode(byte[] bytes) {
+        Reader reader = new Reader(bytes);
+        byte version = reader.buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported activity encoding version " + version);
+        }
+        Activity activity = new Activity();
+        activity.setId(reader.string());
+        activity.setUserId(reader.string());
+        activity.setType(reader.string());
+        activity.setDuration(reader.optionalInt());
+        activity.setCaloriesBurned(reader.optionalInt());
+        activity.setStartTime(reader.timestamp());
+        activity.setCreatedAt(reader.timestamp());
+        activity.setUpdatedAt(reader.timestamp());
+        activity.setAdditionalMetrics((Map<String, Object>) reader.value());
+        return activity;
+    }
+
+    // A plain growable array: ByteArrayOutputStream synchronizes every single-byte write
+    private static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            write(utf8);
+        }
+
+        void optionalInt(Integer value) {
+            write(value == null ? 0 : 1);
+            if (value != null) {
+                zigzag(value);
+            }
+        }
+
+        void timestamp(LocalDateTime value) {
+            write(value == null ? 0 : 1);
+            if (value != null) {
+                zigzag(value.toEpochSecond(ZoneOffset.UTC));
+                varint(value.getNano());
+            }
+        }
+
+        void value(Object value) {
+            switch (value) {
+                case null -> write(NULL);
+                case Boolean bool -> write(bool ? TRUE : FALSE);
+                case Integer number -> longValue(number);
+                case Long number -> longValue(number);
+                case Short number -> longValue(number);
+                case Byte number -> longValue(number);
+                case Number number -> {
+                    write(DOUBLE);
+                    write(ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).putDouble(number.doubleValue()).array());
+                }
+                case CharSequence text -> {
+                    write(STRING);
+                    string(text.toString());
+                }
+                case List<?> list -> list(list);
+                case Map<?, ?> map -> {
+                    write(MAP);
+                    varint(map.size());
+                    map.forEach((key, entry) -> {
+                        string(String.valueOf(key));
+                        value(entry);
+                    });
+                }
+                default -> {
+                    write(STRING);
+                    string(value.toString());
+                }
+            }
+        }
+
+        private void longValue(long value) {
+            write(LONG);
+            zigzag(value);
+        }
+
+        private void list(List<?> list) {
+            if (isIntSeries(list)) {
+                write(INTS);
+                varint(list.size());
+                list.forEach(sample -> zigzag(((Number) sample).longValue()));
+                return;
+            }
+            if (isFloatSeries(list)) {
+                write(FLOATS);
+                varint(list.size());
+                ensure(list.size() * Float.BYTES);
+                ByteBuffer floats = ByteBuffer.wrap(bytes, size, list.size() * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                list.forEach(sample -> floats.putFloat(((Number) sample).floatValue()));
+                size += list.size() * Float.BYTES;
+                return;
+            }
+            write(LIST);
+            varint(list.size());
+            list.forEach(this::value);
+        }
+
+        private static boolean isIntSeries(List<?> list) {
+            if (list.isEmpty()) {
+                return false;
+            }
+            for (Object sample : list) {
+                if (!(sample instanceof Integer || sample instanceof Long || sample instanceof Short || sample instanceof Byte)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isFloatSeries(List<?> list) {
+            if (list.isEmpty()) {
+                return false;
+            }
+            for (Object sample : list) {
+                // Decimals only: an integer among them must keep its type, so mixed lists take the LIST path
+                boolean decimal = sample instanceof Double || sample instanceof Float;
+                if (!decimal || (double) ((Number) sample).floatValue() != ((Number) sample).doubleValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(byte[] bytes) {
+            this.buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        long varint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long zigzag() {
+            long raw = varint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String string() {
+            int length = (int) varint();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(buffer.array(), buffer.position(), length - 1, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length - 1);
+            return value;
+        }
+
+        Integer optionalInt() {
+            return buffer.get() == 0 ? null : (int) zigzag();
+        }
+
+        LocalDateTime timestamp() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            long epochSecond = zigzag();
+            return LocalDateTime.ofEpochSecond(epochSecond, (int) varint(), ZoneOffset.UTC);
+        }
+
+        Object value() {
+            int tag = buffer.get();
+            return switch (tag) {
+                case NULL -> null;
+                case FALSE -> false;
+                case TRUE -> true;
+                case LONG -> {
+                    long value = zigzag();
+                    yield value == (int) value ? (Object) (int) value : (Object) value; // Integer when it fits, as JSON decoding does; never a Double
+                }
+                case DOUBLE -> buffer.getDouble();
+                case STRING -> string();
+                case LIST -> {
+                    int size = (int) varint();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(value());
+                    }
+                    yield list;
+                }
+                case MAP -> {
+                    int size = (int) varint();
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        map.put(string(), value());
+                    }
+                    yield map;
+                }
+                case INTS -> {
+                    int size = (int) varint();
+                    List<Number> samples = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        long sample = zigzag();
+                        samples.add(sample == (int) sample ? (Number) (int) sample : (Number) sample);
+                    }
+                    yield samples;
+                }
+                case FLOATS -> {
+                    int size = (int) varint();
+                    List<Number> samples = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        samples.add((double) buffer.getFloat()); // JSON decoding yields a Double for every decimal, 5.0 included
+                    }
+                    yield samples;
+                }
+                default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+            };
+        }
+    }
+}
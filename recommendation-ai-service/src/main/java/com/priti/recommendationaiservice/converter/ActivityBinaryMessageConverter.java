@@ -0,0 +1,33 @@
+package com.priti.recommendationaiservice.converter;
+
+import com.priti.recommendationaiservice.model.Activity;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+// Activity events in ActivityBinaryCodec format; the content type carries the schema, so no __TypeId__ header is needed
+public class ActivityBinaryMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/vnd.fitness.activity.v1+binary";
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof Activity activity)) {
+            throw new MessageConversionException("Binary wire format only supports Activity, got " + object.getClass().getName());
+        }
+        byte[] body = ActivityBinaryCodec.encode(activity);
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        try {
+            return ActivityBinaryCodec.decode(message.getBody());
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("Could not decode binary activity", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.priti.recommendationaiservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DeadLetterReplayDTO {
+    private int replayed;
+    private long remaining; // still in the dead-letter queue, -1 if unknown
+}
@@ -0,0 +1,13 @@
+package com.priti.recommendationaiservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class RecommendationPageDTO {
+    private List<RecommendationSummaryDTO> recommendations;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,14 @@
+package com.priti.recommendationaiservice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RecommendationSummaryDTO {
+    private String id;
+    private String activityId;
+    private String activityType;
+    private LocalDateTime createdAt;
+    private String headline; // start of the recommendation text; the full document is at /activity/{activityId}
+}
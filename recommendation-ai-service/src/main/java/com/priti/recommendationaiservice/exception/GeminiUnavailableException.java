@@ -0,0 +1,8 @@
+package com.priti.recommendationaiservice.exception;
+
+// Gemini could not be reached (circuit open, timeouts, or 429/5xx after all retries); the activity should be retried later
+public class GeminiUnavailableException extends RuntimeException {
+    public GeminiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
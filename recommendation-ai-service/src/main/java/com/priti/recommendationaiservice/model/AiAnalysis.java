@@ -0,0 +1,27 @@
+package com.priti.recommendationaiservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+// Typed form of the JSON the prompt asks Gemini to return; activityId is only present in batch answers
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AiAnalysis(
+        String activityId,
+        Analysis analysis,
+        List<Improvement> improvements,
+        List<Suggestion> suggestions,
+        List<String> safety) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Analysis(String overall, String pace, String heartRate, String caloriesBurned) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Improvement(String area, String recommendation) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Suggestion(String workout, String description) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.priti.recommendationaiservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// AI analysis shared by every activity with the same normalized features, keyed by the feature key
+@Document(collection = "recommendation_cache")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CachedAnalysis {
+    @Id
+    private String featureKey;
+    private String recommendation;
+    private List<String> improvements;
+    private List<String> suggestions;
+    private List<String> safety;
+    private LocalDateTime createdAt;
+
+    @Indexed(expireAfter = "0s") // Mongo removes the entry once expiresAt has passed
+    private LocalDateTime expiresAt;
+}
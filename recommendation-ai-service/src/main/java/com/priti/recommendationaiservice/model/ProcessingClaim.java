@@ -0,0 +1,26 @@
+package com.priti.recommendationaiservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Lease on an activity while one instance generates its recommendation; expires if that instance dies
+@Document(collection = "recommendation_claims")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingClaim {
+    @Id
+    private String activityId;
+    private String owner;
+
+    @Indexed(expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,9 @@
+package com.priti.recommendationaiservice.repository;
+
+import com.priti.recommendationaiservice.model.CachedAnalysis;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CachedAnalysisRepository extends MongoRepository<CachedAnalysis, String> {
+}
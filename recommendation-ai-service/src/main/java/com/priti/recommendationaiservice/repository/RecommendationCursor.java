@@ -0,0 +1,32 @@
+package com.priti.recommendationaiservice.repository;
+
+import com.priti.recommendationaiservice.dto.RecommendationSummaryDTO;
+import com.priti.recommendationaiservice.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Keyset position in the (createdAt desc, _id desc) ordering, encoded as an opaque URL-safe token
+public record RecommendationCursor(LocalDateTime createdAt, String id) {
+
+    public static RecommendationCursor of(RecommendationSummaryDTO summary) {
+        return new RecommendationCursor(summary.getCreatedAt(), summary.getId());
+    }
+
+    public String encode() {
+        String raw = (createdAt == null ? "" : createdAt.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecommendationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String createdAt = raw.substring(0, separator);
+            return new RecommendationCursor(createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.priti.recommendationaiservice.repository;
+
+import com.priti.recommendationaiservice.dto.RecommendationSummaryDTO;
+
+import java.util.List;
+
+public interface RecommendationRepositoryCustom {
+    List<RecommendationSummaryDTO> findUserRecommendationSummaries(String userId, RecommendationCursor after, int limit, int headlineLength);
+}
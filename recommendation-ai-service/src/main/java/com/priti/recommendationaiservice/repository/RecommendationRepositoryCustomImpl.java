@@ -0,0 +1,57 @@
+package com.priti.recommendationaiservice.repository;
+
+import com.priti.recommendationaiservice.dto.RecommendationSummaryDTO;
+import com.priti.recommendationaiservice.model.Recommendation;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RecommendationRepositoryCustomImpl implements RecommendationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Walks the {userId, createdAt desc, _id desc} index from the cursor and ships only the summary fields;
+    // the headline is cut server-side so the analysis text and lists never leave Mongo
+    @Override
+    public List<RecommendationSummaryDTO> findUserRecommendationSummaries(String userId, RecommendationCursor after, int limit, int headlineLength) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, afterCursor(after));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id"))),
+                Aggregation.limit(limit),
+                Aggregation.project("activityId", "activityType", "createdAt")
+                        .and(StringOperators.valueOf("recommendation").substringCP(0, headlineLength + 1)).as("headline"));
+
+        List<RecommendationSummaryDTO> summaries = mongoTemplate.aggregate(aggregation, Recommendation.class, RecommendationSummaryDTO.class)
+                .getMappedResults();
+        summaries.forEach(summary -> {
+            String headline = summary.getHeadline();
+            if (headline != null && headline.length() > headlineLength) {
+                summary.setHeadline(headline.substring(0, headlineLength).stripTrailing() + "…");
+            }
+        });
+        return summaries;
+    }
+
+    private Criteria afterCursor(RecommendationCursor after) {
+        Object id = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+        if (after.createdAt() == null) {
+            return new Criteria().andOperator(Criteria.where("createdAt").is(null), Criteria.where("_id").lt(id));
+        }
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(after.createdAt()),
+                new Criteria().andOperator(Criteria.where("createdAt").is(after.createdAt()), Criteria.where("_id").lt(id)),
+                Criteria.where("createdAt").is(null));
+    }
+}
@@ -2,8 +2,9 @@ package com.priti.recommendationaiservice.service;
 
 import com.priti.recommendationaiservice.model.Activity;
 import com.priti.recommendationaiservice.model.Recommendation;
+import reactor.core.publisher.Mono;
 
 public interface ActivityAIService {
-    Recommendation generateRecommendation(Activity activity);
+    Mono<Recommendation> generateRecommendation(Activity activity);
 
 }
@@ -1,7 +1,9 @@
 package com.priti.recommendationaiservice.service;
 
 import com.priti.recommendationaiservice.model.Activity;
+import org.springframework.amqp.core.Message;
+import reactor.core.publisher.Mono;
 
 public interface ActivityMessageListener {
-    void processActivity(Activity activity);
+    Mono<Void> processActivity(Activity activity, Message message);
 }
@@ -0,0 +1,13 @@
+package com.priti.recommendationaiservice.service;
+
+import com.priti.recommendationaiservice.model.Activity;
+import com.priti.recommendationaiservice.model.CachedAnalysis;
+import com.priti.recommendationaiservice.model.Recommendation;
+
+import java.util.Optional;
+
+public interface AnalysisCacheService {
+    Optional<CachedAnalysis> get(Activity activity);
+
+    void put(Activity activity, Recommendation recommendation);
+}
@@ -0,0 +1,9 @@
+package com.priti.recommendationaiservice.service;
+
+import com.priti.recommendationaiservice.dto.DeadLetterReplayDTO;
+
+public interface DeadLetterService {
+    long countDeadLetters();
+
+    DeadLetterReplayDTO replay(Integer max);
+}
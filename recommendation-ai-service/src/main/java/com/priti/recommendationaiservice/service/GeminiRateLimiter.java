@@ -0,0 +1,7 @@
+package com.priti.recommendationaiservice.service;
+
+import reactor.core.publisher.Mono;
+
+public interface GeminiRateLimiter {
+    Mono<Void> acquire(String prompt, int activityCount);
+}
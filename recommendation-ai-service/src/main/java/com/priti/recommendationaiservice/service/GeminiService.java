@@ -1,5 +1,9 @@
 package com.priti.recommendationaiservice.service;
 
+import reactor.core.publisher.Mono;
+
 public interface GeminiService {
-    String getAnswer(String question);
+    Mono<String> getAnswer(String question);
+
+    Mono<String> getAnswer(String question, int activityCount);
 }
@@ -0,0 +1,7 @@
+package com.priti.recommendationaiservice.service;
+
+public interface ProcessingClaimService {
+    boolean tryClaim(String activityId);
+
+    void release(String activityId);
+}
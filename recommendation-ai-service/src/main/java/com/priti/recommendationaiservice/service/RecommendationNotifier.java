@@ -0,0 +1,10 @@
+package com.priti.recommendationaiservice.service;
+
+import com.priti.recommendationaiservice.model.Recommendation;
+import reactor.core.publisher.Mono;
+
+public interface RecommendationNotifier {
+    Mono<Recommendation> await(String activityId);
+
+    void publish(Recommendation recommendation);
+}
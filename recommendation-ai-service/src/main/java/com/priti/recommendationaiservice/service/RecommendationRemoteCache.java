@@ -0,0 +1,13 @@
+package com.priti.recommendationaiservice.service;
+
+import com.priti.recommendationaiservice.model.Recommendation;
+
+import java.util.Optional;
+
+// Optional second cache tier shared between instances (e.g. Redis). Declare a bean implementing it to enable;
+// without one, reads go from the in-process cache straight to Mongo.
+public interface RecommendationRemoteCache {
+    Optional<Recommendation> getByActivityId(String activityId);
+
+    void put(Recommendation recommendation);
+}
@@ -1,11 +1,23 @@
 package com.priti.recommendationaiservice.service;
 
+import com.priti.recommendationaiservice.dto.RecommendationPageDTO;
 import com.priti.recommendationaiservice.model.Recommendation;
 
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 import java.util.List;
 
 public interface RecommendationService {
     List<Recommendation> getUserRecommendation(String userId);
 
+    RecommendationPageDTO getUserRecommendationSummaries(String userId, String after, Integer limit);
+
     Recommendation getActivityRecommendation(String activityId);
+
+    boolean hasActivityRecommendation(String activityId);
+
+    Mono<Recommendation> awaitActivityRecommendation(String activityId, Duration timeout);
+
+    Recommendation saveRecommendation(Recommendation recommendation);
 }
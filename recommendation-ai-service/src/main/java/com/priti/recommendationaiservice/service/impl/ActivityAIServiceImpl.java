@@ -1,20 +1,32 @@
 package com.priti.recommendationaiservice.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priti.recommendationaiservice.exception.GeminiUnavailableException;
 import com.priti.recommendationaiservice.model.Activity;
+import com.priti.recommendationaiservice.model.AiAnalysis;
+import com.priti.recommendationaiservice.model.CachedAnalysis;
 import com.priti.recommendationaiservice.model.Recommendation;
 import com.priti.recommendationaiservice.service.ActivityAIService;
+import com.priti.recommendationaiservice.service.AnalysisCacheService;
 import com.priti.recommendationaiservice.service.GeminiService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,63 +34,162 @@ import java.util.List;
 public class ActivityAIServiceImpl implements ActivityAIService {
 
     private final GeminiService geminiService;
+    private final AnalysisCacheService analysisCacheService;
+    private final GeminiResponseParser geminiResponseParser;
 
-    public Recommendation generateRecommendation(Activity activity) {
+    @Value("${recommendation.ai.batch.enabled}")
+    private boolean batchEnabled;
+    @Value("${recommendation.ai.batch.max-size}")
+    private int batchMaxSize;
+    @Value("${recommendation.ai.batch.max-wait}")
+    private Duration batchMaxWait;
+
+    private ActivityBatcher activityBatcher;
+
+    @PostConstruct
+    void startBatcher() {
+        if (batchEnabled && batchMaxSize > 1) {
+            activityBatcher = new ActivityBatcher(batchMaxSize, batchMaxWait, this::generateBatchRecommendations);
+        }
+    }
+
+    @PreDestroy
+    void stopBatcher() {
+        if (activityBatcher != null) {
+            activityBatcher.close();
+        }
+    }
+
+    public Mono<Recommendation> generateRecommendation(Activity activity) {
+        return Mono.fromCallable(() -> analysisCacheService.get(activity))
+                .subscribeOn(Schedulers.boundedElastic()) // the cache may fall through to Mongo
+                .flatMap(cachedAnalysis -> {
+                    if (cachedAnalysis.isPresent()) {
+                        log.info("Reusing cached analysis for activity {}", activity.getId());
+                        return Mono.just(createRecommendationFromCache(activity, cachedAnalysis.get()));
+                    }
+                    if (activityBatcher != null) {
+                        return Mono.fromFuture(activityBatcher.submit(activity));
+                    }
+                    return generateSingleRecommendation(activity);
+                });
+    }
+
+    // GeminiUnavailableException is passed through so the listener can park the activity on the retry queue
+    private Mono<Recommendation> generateSingleRecommendation(Activity activity) {
         String prompt = createPromptForActivity(activity);
-        String aiResponse = geminiService.getAnswer(prompt);
-        log.info("Response from AI {}: {}", activity.getId(), aiResponse);
-        return processRecommendationAiResponse(activity, aiResponse);
+        return geminiService.getAnswer(prompt)
+                .publishOn(Schedulers.boundedElastic()) // cache writes may hit Mongo, keep them off the Netty event loop
+                .map(aiResponse -> {
+                    log.info("Response from AI {}: {}", activity.getId(), aiResponse);
+                    try {
+                        Recommendation recommendation = processRecommendationAiResponse(activity, aiResponse);
+                        analysisCacheService.put(activity, recommendation); // only real AI analyses are cached, never the default
+                        return recommendation;
+                    } catch (Exception e) {
+                        log.error("Failed to process AI response for activity {}", activity.getId(), e);
+                        return createDefaultRecommendation(activity);
+                    }
+                })
+                .onErrorResume(error -> !(error instanceof GeminiUnavailableException), error -> {
+                    log.error("Gemini rejected the request for activity {}: {}", activity.getId(), error.getMessage());
+                    return Mono.just(createDefaultRecommendation(activity));
+                });
         //return aiResponse;
     }
 
-    private Recommendation processRecommendationAiResponse(Activity activity, String aiResponse){
-        try {
-            ObjectMapper objectMapper = new ObjectMapper(); //It is used to convert JSON strings to Java objects and vice versa
-            JsonNode rootNode = objectMapper.readTree(aiResponse);
-
-            JsonNode textNode = rootNode.path("candidates")
-                    .get(0)
-                    .path("content")
-                    .path("parts")
-                    .get(0)
-                    .path("text");
-
-            String jsonContent = textNode.asText()
-                    .replaceAll("```json\\n", "")
-                    .replaceAll("\\n```", "")
-                    .trim();
-
-            //log.info("Parsed Response from AI {}: {}", activity.getId(), jsonContent);
-
-            JsonNode analysisJson = objectMapper.readTree(jsonContent); //Creating JsonNode from the JSON string
-            JsonNode analysisNode = analysisJson.path("analysis"); //This retrieves the "analysis" node from the JSON
-
-            StringBuilder fullAnalysis = new StringBuilder();
-            addAnalysisSection(fullAnalysis, analysisNode, "overall", "Overall analysis here: ");
-            addAnalysisSection(fullAnalysis, analysisNode, "pace", "Pace analysis here: ");
-            addAnalysisSection(fullAnalysis, analysisNode, "heartRate", "Heart rate analysis here: ");
-            addAnalysisSection(fullAnalysis, analysisNode, "caloriesBurned", "Calories burned analysis here: ");
-
-            List<String> improvements = extractImprovements(analysisJson.path("improvements"));
-            List<String> suggestions = extractSuggestions(analysisJson.path("suggestions"));
-            List<String> safety = extractSafetyGuidelines(analysisJson.path("safety"));
-
-            return Recommendation.builder()
-                    .activityId(activity.getId())
-                    .userId(activity.getUserId())
-                    .activityType(activity.getType())
-                    .recommendation(fullAnalysis.toString().trim())
-                    .improvements(improvements)
-                    .suggestions(suggestions)
-                    .safety(safety)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return createDefaultRecommendation(activity);
+    // One prompt for the whole batch; activities the answer does not cover are retried with single calls
+    private void generateBatchRecommendations(List<ActivityBatcher.PendingActivity> batch) {
+        Map<String, ActivityBatcher.PendingActivity> pendingById = new LinkedHashMap<>();
+        List<ActivityBatcher.PendingActivity> fallback = new ArrayList<>();
+        batch.forEach(pending -> {
+            if (pendingById.putIfAbsent(pending.activity().getId(), pending) != null) {
+                fallback.add(pending); // redelivered duplicate inside the same batch
+            }
+        });
+
+        List<Activity> activities = pendingById.values().stream().map(ActivityBatcher.PendingActivity::activity).toList();
+        geminiService.getAnswer(createPromptForActivities(activities), activities.size())
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty batch response from Gemini"))) // every future must complete
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(aiResponse -> {
+                    log.info("Batch response from AI for {} activities", activities.size());
+                    try {
+                        for (AiAnalysis aiAnalysis : geminiResponseParser.parseAnalyses(aiResponse)) {
+                            ActivityBatcher.PendingActivity pending = pendingById.remove(aiAnalysis.activityId());
+                            if (pending != null) {
+                                Recommendation recommendation = buildRecommendation(pending.activity(), aiAnalysis);
+                                analysisCacheService.put(pending.activity(), recommendation);
+                                pending.result().complete(recommendation);
+                            }
+                        }
+                    } catch (Exception e) {
+                        log.warn("Could not use batch AI response, falling back to single calls: {}", e.getMessage());
+                    }
+                    fallback.addAll(pendingById.values());
+                    fallback.forEach(this::generateFallbackRecommendation);
+                }, error -> {
+                    fallback.addAll(pendingById.values());
+                    if (error instanceof GeminiUnavailableException) {
+                        fallback.forEach(pending -> pending.result().completeExceptionally(error)); // single calls would fail too
+                    } else {
+                        log.warn("Batch AI call failed, falling back to single calls: {}", error.getMessage());
+                        fallback.forEach(this::generateFallbackRecommendation);
+                    }
+                });
+    }
+
+    private void generateFallbackRecommendation(ActivityBatcher.PendingActivity pending) {
+        generateSingleRecommendation(pending.activity())
+                .subscribe(pending.result()::complete, pending.result()::completeExceptionally,
+                        () -> pending.result().complete(null)); // empty answer: nothing to save, as on the single path
+    }
+
+    private Recommendation processRecommendationAiResponse(Activity activity, String aiResponse) throws Exception {
+        AiAnalysis aiAnalysis = geminiResponseParser.parseAnalysis(aiResponse);
+
+        //log.info("Parsed Response from AI {}: {}", activity.getId(), aiAnalysis);
+
+        return buildRecommendation(activity, aiAnalysis);
+    }
+
+    private Recommendation buildRecommendation(Activity activity, AiAnalysis aiAnalysis) {
+        StringBuilder fullAnalysis = new StringBuilder();
+        AiAnalysis.Analysis analysis = aiAnalysis.analysis();
+        if (analysis != null) {
+            addAnalysisSection(fullAnalysis, analysis.overall(), "Overall analysis here: ");
+            addAnalysisSection(fullAnalysis, analysis.pace(), "Pace analysis here: ");
+            addAnalysisSection(fullAnalysis, analysis.heartRate(), "Heart rate analysis here: ");
+            addAnalysisSection(fullAnalysis, analysis.caloriesBurned(), "Calories burned analysis here: ");
         }
 
+        List<String> improvements = extractImprovements(aiAnalysis.improvements());
+        List<String> suggestions = extractSuggestions(aiAnalysis.suggestions());
+        List<String> safety = extractSafetyGuidelines(aiAnalysis.safety());
+
+        return Recommendation.builder()
+                .activityId(activity.getId())
+                .userId(activity.getUserId())
+                .activityType(activity.getType())
+                .recommendation(fullAnalysis.toString().trim())
+                .improvements(improvements)
+                .suggestions(suggestions)
+                .safety(safety)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private Recommendation createRecommendationFromCache(Activity activity, CachedAnalysis cachedAnalysis) {
+        return Recommendation.builder()
+                .activityId(activity.getId())
+                .userId(activity.getUserId())
+                .activityType(activity.getType())
+                .recommendation(cachedAnalysis.getRecommendation())
+                .improvements(cachedAnalysis.getImprovements())
+                .suggestions(cachedAnalysis.getSuggestions())
+                .safety(cachedAnalysis.getSafety())
+                .createdAt(LocalDateTime.now())
+                .build();
     }
 
     private Recommendation createDefaultRecommendation(Activity activity) {
@@ -94,22 +205,22 @@ public class ActivityAIServiceImpl implements ActivityAIService {
                 .build();
     }
 
-    private List<String> extractSafetyGuidelines(JsonNode safety) {
+    private List<String> extractSafetyGuidelines(List<String> safety) {
         List<String> safetyList = new ArrayList<>();
-        if(safety.isArray()) {
-            safety.forEach(safetyPoint -> safetyList.add(safetyPoint.asText())); ;
+        if(safety != null) {
+            safety.forEach(safetyPoint -> safetyList.add(Objects.requireNonNullElse(safetyPoint, "")));
         }
         return safetyList.isEmpty() ?
                 Collections.singletonList("Safety Guidelines: No specific guidelines provided. So please ensure to follow general safety practices.") :
                 safetyList;
     }
 
-    private List<String> extractSuggestions(JsonNode suggestions) {
+    private List<String> extractSuggestions(List<AiAnalysis.Suggestion> suggestions) {
         List<String> suggestionList = new ArrayList<>();
-        if(suggestions.isArray()) {
+        if(suggestions != null) {
             suggestions.forEach(suggestion -> {
-                String workout = suggestion.path("workout").asText();
-                String description = suggestion.path("description").asText();
+                String workout = Objects.requireNonNullElse(suggestion.workout(), "");
+                String description = Objects.requireNonNullElse(suggestion.description(), "");
                 suggestionList.add(String.format("Workout: %s, Description: %s", workout, description));
             });
         }
@@ -119,12 +230,12 @@ public class ActivityAIServiceImpl implements ActivityAIService {
 
     }
 
-    private List<String> extractImprovements(JsonNode improvements) {
+    private List<String> extractImprovements(List<AiAnalysis.Improvement> improvements) {
         List<String> improvementList = new ArrayList<>();
-        if(improvements.isArray()) {
+        if(improvements != null) {
             improvements.forEach(improvement -> {
-                String area = improvement.path("area").asText();
-                String recommendationDetail = improvement.path("recommendation").asText();
+                String area = Objects.requireNonNullElse(improvement.area(), "");
+                String recommendationDetail = Objects.requireNonNullElse(improvement.recommendation(), "");
                 improvementList.add(String.format("Area: %s, Recommendation: %s", area, recommendationDetail));
             });
         }
@@ -133,17 +244,15 @@ public class ActivityAIServiceImpl implements ActivityAIService {
                 improvementList;
     }
 
-    private void addAnalysisSection(StringBuilder fullAnalysis, JsonNode analysisNode, String key, String prefix) {
-        if(!analysisNode.path(key).isMissingNode()) {
+    private void addAnalysisSection(StringBuilder fullAnalysis, String section, String prefix) {
+        if(section != null) {
             fullAnalysis.append(prefix)
-                    .append(analysisNode.path(key).asText())
+                    .append(section)
                     .append("\n\n");
         }
-    }// This method adds a section to the full analysis string, checking if the key exists in the JSON node and appending its content with a prefix.
+    }// This method adds a section to the full analysis string, skipping sections the AI left out.
 
-    private String createPromptForActivity(Activity activity) {
-        return String.format("""
-        Analyze this fitness activity and provide detailed recommendations in the following EXACT JSON format:
+    private static final String RESPONSE_FORMAT = """
         {
           "analysis": {
             "overall": "Overall analysis here",
@@ -168,7 +277,12 @@ public class ActivityAIServiceImpl implements ActivityAIService {
             "Safety point 2"
           ]
         }
+        """;
 
+    private String createPromptForActivity(Activity activity) {
+        return String.format("""
+        Analyze this fitness activity and provide detailed recommendations in the following EXACT JSON format:
+        %s
         Analyze this activity:
         Activity Type: %s
         Duration: %d minutes
@@ -178,10 +292,36 @@ public class ActivityAIServiceImpl implements ActivityAIService {
         Provide detailed analysis focusing on performance, improvements, next workout suggestions, and safety guidelines.
         Ensure the response follows the EXACT JSON format shown above.
         """,
+                RESPONSE_FORMAT,
                 activity.getType(),
                 activity.getDuration(),
                 activity.getCaloriesBurned(),
                 activity.getAdditionalMetrics()
         );
     }
+
+    private String createPromptForActivities(List<Activity> activities) {
+        String activityLines = activities.stream()
+                .map(activity -> String.format("- Activity ID: %s, Activity Type: %s, Duration: %d minutes, Calories Burned: %d, Additional Metrics: %s",
+                        activity.getId(),
+                        activity.getType(),
+                        activity.getDuration(),
+                        activity.getCaloriesBurned(),
+                        activity.getAdditionalMetrics()))
+                .collect(Collectors.joining("\n"));
+        return String.format("""
+        Analyze each of the following %d fitness activities independently and respond with a JSON array containing exactly one element per activity.
+        Each element must contain an "activityId" field with the Activity ID it analyzes, plus the fields of this EXACT JSON format:
+        %s
+        Activities:
+        %s
+        
+        Provide detailed analysis focusing on performance, improvements, next workout suggestions, and safety guidelines.
+        Ensure the response is only the JSON array and every element follows the EXACT JSON format shown above.
+        """,
+                activities.size(),
+                RESPONSE_FORMAT,
+                activityLines
+        );
+    }
 }
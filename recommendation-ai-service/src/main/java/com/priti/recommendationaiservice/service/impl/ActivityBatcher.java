@@ -0,0 +1,90 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.priti.recommendationaiservice.model.Activity;
+import com.priti.recommendationaiservice.model.Recommendation;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects activities from concurrent listener threads and flushes them as one batch once
+ * {@code maxBatchSize} activities are waiting or {@code maxWait} has passed since the first one arrived.
+ */
+@Slf4j
+class ActivityBatcher implements AutoCloseable {
+
+    record PendingActivity(Activity activity, CompletableFuture<Recommendation> result) {
+    }
+
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Consumer<List<PendingActivity>> batchHandler;
+    private final BlockingQueue<PendingActivity> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    ActivityBatcher(int maxBatchSize, Duration maxWait, Consumer<List<PendingActivity>> batchHandler) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchHandler = batchHandler;
+        this.dispatcher = Thread.ofPlatform().name("activity-batcher").daemon().start(this::dispatchLoop);
+    }
+
+    CompletableFuture<Recommendation> submit(Activity activity) {
+        PendingActivity pending = new PendingActivity(activity, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.result();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                PendingActivity first = queue.take();
+                List<PendingActivity> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingActivity next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batchExecutor.execute(() -> handle(batch)); // keep collecting while the AI call is in progress
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void handle(List<PendingActivity> batch) {
+        try {
+            batchHandler.accept(batch);
+        } catch (Exception e) {
+            log.error("Activity batch of {} failed", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        List<PendingActivity> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.forEach(pending -> pending.result().cancel(false));
+        batchExecutor.shutdown();
+    }
+}
@@ -1,30 +1,193 @@
 package com.priti.recommendationaiservice.service.impl;
 
+import com.priti.recommendationaiservice.config.RabbitMqConfig;
+import com.priti.recommendationaiservice.exception.GeminiUnavailableException;
 import com.priti.recommendationaiservice.model.Activity;
 import com.priti.recommendationaiservice.model.Recommendation;
-import com.priti.recommendationaiservice.repository.RecommendationRepository;
 import com.priti.recommendationaiservice.service.ActivityAIService;
 import com.priti.recommendationaiservice.service.ActivityMessageListener;
-import lombok.RequiredArgsConstructor;
+import com.priti.recommendationaiservice.service.ProcessingClaimService;
+import com.priti.recommendationaiservice.service.RecommendationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ActivityMessageListenerImpl implements ActivityMessageListener {
 
+    public static final String RETRY_ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String DEAD_LETTER_REASON_HEADER = "x-dead-letter-reason";
+
     private final ActivityAIService activityAIService;
-    private final RecommendationRepository recommendationRepository;
+    private final RecommendationService recommendationService;
+    private final ProcessingClaimService processingClaimService;
+    private final RabbitTemplate rabbitTemplate;
+    private final String retryQueue;
+    private final int maxRetries;
+    private final String deadLetterExchange;
+    private final String deadLetterRoutingKey;
+    private final Semaphore aiCallPermits;
+    private final Timer queueLagTimer;
+    private final Timer processingTimer;
+
+    public ActivityMessageListenerImpl(ActivityAIService activityAIService,
+                                       RecommendationService recommendationService,
+                                       ProcessingClaimService processingClaimService,
+                                       RabbitTemplate rabbitTemplate,
+                                       MeterRegistry meterRegistry,
+                                       AmqpAdmin amqpAdmin,
+                                       @Value("${rabbitmq.queue.name}") String queue,
+                                       @Value("${rabbitmq.retry.queue.name}") String retryQueue,
+                                       @Value("${rabbitmq.retry.delays}") List<Duration> retryDelays,
+                                       @Value("${rabbitmq.dead-letter.exchange}") String deadLetterExchange,
+                                       @Value("${rabbitmq.dead-letter.routing-key}") String deadLetterRoutingKey,
+                                       @Value("${recommendation.ai.max-in-flight}") int maxInFlight) {
+        this.activityAIService = activityAIService;
+        this.recommendationService = recommendationService;
+        this.processingClaimService = processingClaimService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryQueue = retryQueue;
+        this.maxRetries = retryDelays.size();
+        this.deadLetterExchange = deadLetterExchange;
+        this.deadLetterRoutingKey = deadLetterRoutingKey;
+        this.aiCallPermits = new Semaphore(maxInFlight, true);
+        this.queueLagTimer = Timer.builder("recommendation.activity.queue.lag")
+                .description("Time from activity creation until the listener picks it up")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("recommendation.activity.processing")
+                .description("Time to generate and store a recommendation for one activity")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.ai.in-flight", aiCallPermits, permits -> maxInFlight - permits.availablePermits())
+                .description("Outstanding AI calls")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.activity.queue.depth", () -> queueDepth(amqpAdmin, queue))
+                .description("Ready messages waiting in the activity queue")
+                .register(meterRegistry);
+    }
 
     @Override
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void processActivity(Activity activity) {
+    @RabbitListener(queues = "${rabbitmq.queue.name}", containerFactory = "activityListenerContainerFactory")
+    public Mono<Void> processActivity(Activity activity, Message message) {
         log.info("Received activity for AI processing: {}", activity.getId());
+        if (activity.getCreatedAt() != null) {
+            queueLagTimer.record(Duration.between(activity.getCreatedAt(), LocalDateTime.now()));
+        }
+        // Redeliveries and duplicate publishes must not pay for a second Gemini call
+        if (recommendationService.hasActivityRecommendation(activity.getId())) {
+            log.info("Recommendation already exists for activity {}, skipping duplicate delivery", activity.getId());
+            return Mono.empty();
+        }
+        if (!processingClaimService.tryClaim(activity.getId())) {
+            // Another consumer is on it; check back later rather than drop it, in case that consumer fails.
+            // Not a failed attempt, so a slow but healthy owner cannot push the duplicate to the dead-letter queue
+            return scheduleRecheck(activity, message);
+        }
+        // The previous owner may have saved its recommendation and released the claim between the check and the claim
+        if (recommendationService.hasActivityRecommendation(activity.getId())) {
+            processingClaimService.release(activity.getId());
+            log.info("Recommendation already exists for activity {}, skipping duplicate delivery", activity.getId());
+            return Mono.empty();
+        }
+        try {
+            acquireAiCallPermit(); // blocks this (virtual) consumer thread, so further prefetched messages stay unacked
+        } catch (RuntimeException e) {
+            processingClaimService.release(activity.getId()); // doFinally below is never reached on this path
+            throw e;
+        }
+        Timer.Sample sample = Timer.start();
 //        log.info("Generated recommendation: {}", activityAIService.generateRecommendation(activity));
-        Recommendation recommendation = activityAIService.generateRecommendation(activity);
-        recommendationRepository.save(recommendation);
+        // The container acks the message only when the returned Mono completes
+        return activityAIService.generateRecommendation(activity)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(recommendationService::saveRecommendation) // also populates the read caches
+                .then()
+                .onErrorResume(GeminiUnavailableException.class, e -> scheduleRetry(activity, message, "Gemini unavailable: " + e.getMessage()))
+                .doFinally(signal -> {
+                    processingClaimService.release(activity.getId());
+                    aiCallPermits.release();
+                    sample.stop(processingTimer);
+                });
+    }
+
+    // Instead of storing the default recommendation, park the activity in the next (longer) delay queue;
+    // once every delay is used up it goes to the dead-letter queue for a manual replay
+    private Mono<Void> scheduleRetry(Activity activity, Message message, String reason) {
+        Integer previousAttempts = message.getMessageProperties().getHeader(RETRY_ATTEMPT_HEADER);
+        int attempt = (previousAttempts == null ? 0 : previousAttempts) + 1;
+        Integer priority = message.getMessageProperties().getPriority();
+        return Mono.fromRunnable(() -> {
+                    if (attempt > maxRetries) {
+                        log.error("Activity {} failed {} retries, dead-lettering: {}", activity.getId(), maxRetries, reason);
+                        rabbitTemplate.convertAndSend(deadLetterExchange, deadLetterRoutingKey, activity, outgoing -> {
+                            MessageProperties properties = outgoing.getMessageProperties();
+                            properties.setPriority(priority);
+                            properties.setHeader(DEAD_LETTER_REASON_HEADER, reason);
+                            return outgoing;
+                        });
+                    } else {
+                        log.warn("Sending activity {} to retry queue (attempt {}/{}): {}", activity.getId(), attempt, maxRetries, reason);
+                        sendToRetryQueue(activity, attempt, priority, attempt);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    // Parks the activity in the shortest delay queue and keeps its retry count as it was
+    private Mono<Void> scheduleRecheck(Activity activity, Message message) {
+        Integer attempts = message.getMessageProperties().getHeader(RETRY_ATTEMPT_HEADER);
+        Integer priority = message.getMessageProperties().getPriority();
+        return Mono.fromRunnable(() -> {
+                    log.info("Activity {} is already being processed, checking again later", activity.getId());
+                    sendToRetryQueue(activity, 1, priority, attempts);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private void sendToRetryQueue(Activity activity, int delayLevel, Integer priority, Integer attempts) {
+        rabbitTemplate.convertAndSend("", RabbitMqConfig.retryQueueName(retryQueue, delayLevel), activity, outgoing -> {
+            MessageProperties properties = outgoing.getMessageProperties();
+            properties.setPriority(priority);
+            if (attempts != null) {
+                properties.setHeader(RETRY_ATTEMPT_HEADER, attempts);
+            }
+            return outgoing;
+        });
+    }
+
+    private void acquireAiCallPermit() {
+        try {
+            aiCallPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an AI call slot", e);
+        }
+    }
+
+    private static double queueDepth(AmqpAdmin amqpAdmin, String queue) {
+        try {
+            QueueInformation queueInfo = amqpAdmin.getQueueInfo(queue);
+            return queueInfo == null ? Double.NaN : queueInfo.getMessageCount();
+        } catch (Exception e) {
+            return Double.NaN;
+        }
     }
 }
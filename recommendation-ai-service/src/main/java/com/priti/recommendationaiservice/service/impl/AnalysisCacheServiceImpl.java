@@ -0,0 +1,141 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.priti.recommendationaiservice.model.Activity;
+import com.priti.recommendationaiservice.model.CachedAnalysis;
+import com.priti.recommendationaiservice.model.Recommendation;
+import com.priti.recommendationaiservice.repository.CachedAnalysisRepository;
+import com.priti.recommendationaiservice.service.AnalysisCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+@Slf4j
+public class AnalysisCacheServiceImpl implements AnalysisCacheService {
+
+    private final Cache<String, CachedAnalysis> analysisCache;
+    private final CachedAnalysisRepository cachedAnalysisRepository;
+    private final Counter memoryHits;
+    private final Counter storeHits;
+    private final Counter misses;
+
+    @Value("${recommendation.cache.enabled}")
+    private boolean enabled;
+    @Value("${recommendation.cache.persistent}")
+    private boolean persistent;
+    @Value("${recommendation.cache.ttl}")
+    private Duration ttl;
+    @Value("${recommendation.cache.bucket.duration}")
+    private int durationBucket;
+    @Value("${recommendation.cache.bucket.calories}")
+    private int caloriesBucket;
+    @Value("${recommendation.cache.bucket.metric}")
+    private double metricBucket;
+
+    public AnalysisCacheServiceImpl(Cache<String, CachedAnalysis> analysisCache,
+                                    CachedAnalysisRepository cachedAnalysisRepository,
+                                    MeterRegistry meterRegistry) {
+        this.analysisCache = analysisCache;
+        this.cachedAnalysisRepository = cachedAnalysisRepository;
+        this.memoryHits = lookupCounter(meterRegistry, "memory_hit");
+        this.storeHits = lookupCounter(meterRegistry, "store_hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    @Override
+    public Optional<CachedAnalysis> get(Activity activity) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String featureKey = featureKey(activity);
+        CachedAnalysis cached = analysisCache.getIfPresent(featureKey);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.of(cached);
+        }
+        if (persistent) {
+            try {
+                Optional<CachedAnalysis> stored = cachedAnalysisRepository.findById(featureKey)
+                        .filter(analysis -> analysis.getExpiresAt().isAfter(LocalDateTime.now())); // TTL monitor runs only once a minute
+                if (stored.isPresent()) {
+                    storeHits.increment();
+                    analysisCache.put(featureKey, stored.get());
+                    return stored;
+                }
+            } catch (Exception e) {
+                log.warn("Could not read cached analysis {}: {}", featureKey, e.getMessage());
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(Activity activity, Recommendation recommendation) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        CachedAnalysis analysis = CachedAnalysis.builder()
+                .featureKey(featureKey(activity))
+                .recommendation(recommendation.getRecommendation())
+                .improvements(recommendation.getImprovements())
+                .suggestions(recommendation.getSuggestions())
+                .safety(recommendation.getSafety())
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+        analysisCache.put(analysis.getFeatureKey(), analysis);
+        if (persistent) {
+            try {
+                cachedAnalysisRepository.save(analysis);
+            } catch (Exception e) {
+                log.warn("Could not persist cached analysis {}: {}", analysis.getFeatureKey(), e.getMessage());
+            }
+        }
+    }
+
+    // Buckets the numeric features so near-identical sessions (e.g. 28 vs 30 min WALKING) share one AI analysis
+    String featureKey(Activity activity) {
+        StringBuilder key = new StringBuilder()
+                .append(activity.getType())
+                .append("|d:").append(bucket(activity.getDuration(), durationBucket))
+                .append("|c:").append(bucket(activity.getCaloriesBurned(), caloriesBucket));
+        if (activity.getAdditionalMetrics() != null && !activity.getAdditionalMetrics().isEmpty()) {
+            key.append("|m:");
+            new TreeMap<>(activity.getAdditionalMetrics()).forEach((name, value) ->
+                    key.append(name).append('=').append(normalizeMetric(value)).append(','));
+        }
+        return key.toString();
+    }
+
+    private String normalizeMetric(Object value) {
+        if (value instanceof Number number) {
+            return String.valueOf((long) Math.floor(number.doubleValue() / metricBucket));
+        }
+        if (value instanceof Map<?, ?> map) {
+            return new TreeMap<>(map).toString();
+        }
+        return String.valueOf(value).trim().toLowerCase();
+    }
+
+    private static String bucket(Integer value, int bucketSize) {
+        return value == null ? "-" : String.valueOf(value / bucketSize);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("recommendation.analysis.cache.lookups")
+                .description("Analysis cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
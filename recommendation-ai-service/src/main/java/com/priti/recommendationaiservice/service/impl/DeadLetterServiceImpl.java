@@ -0,0 +1,87 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.priti.recommendationaiservice.dto.DeadLetterReplayDTO;
+import com.priti.recommendationaiservice.service.DeadLetterService;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class DeadLetterServiceImpl implements DeadLetterService {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final String deadLetterQueue;
+    private final String exchange;
+    private final String routingKey;
+    private final int maxReplayBatch;
+
+    public DeadLetterServiceImpl(RabbitTemplate rabbitTemplate,
+                                 AmqpAdmin amqpAdmin,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${rabbitmq.dead-letter.queue}") String deadLetterQueue,
+                                 @Value("${rabbitmq.exchange.name}") String exchange,
+                                 @Value("${rabbitmq.routing.key}") String routingKey,
+                                 @Value("${rabbitmq.dead-letter.max-replay-batch}") int maxReplayBatch) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.deadLetterQueue = deadLetterQueue;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.maxReplayBatch = maxReplayBatch;
+        Gauge.builder("recommendation.activity.dlq.depth", this::countDeadLetters)
+                .description("Messages waiting in the activity dead-letter queue")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public long countDeadLetters() {
+        try {
+            QueueInformation queueInfo = amqpAdmin.getQueueInfo(deadLetterQueue);
+            return queueInfo == null ? -1 : queueInfo.getMessageCount();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    // Moves messages back onto the activity exchange with a fresh retry budget. Each message is acked only
+    // after it has been republished on the same channel, so a failure leaves it in the dead-letter queue.
+    @Override
+    public DeadLetterReplayDTO replay(Integer max) {
+        int limit = max == null ? maxReplayBatch : Math.clamp(max, 1, maxReplayBatch);
+        int replayed = 0;
+        while (replayed < limit && replayOne()) {
+            replayed++;
+        }
+        log.info("Replayed {} messages from {}", replayed, deadLetterQueue);
+        return new DeadLetterReplayDTO(replayed, countDeadLetters());
+    }
+
+    private boolean replayOne() {
+        Boolean replayed = rabbitTemplate.execute(channel -> {
+            GetResponse response = channel.basicGet(deadLetterQueue, false);
+            if (response == null) {
+                return false;
+            }
+            AMQP.BasicProperties properties = response.getProps();
+            Map<String, Object> headers = properties.getHeaders() == null ? new HashMap<>() : new HashMap<>(properties.getHeaders());
+            headers.remove(ActivityMessageListenerImpl.RETRY_ATTEMPT_HEADER);
+            headers.remove(ActivityMessageListenerImpl.DEAD_LETTER_REASON_HEADER);
+            channel.basicPublish(exchange, routingKey, properties.builder().headers(headers).build(), response.getBody());
+            channel.basicAck(response.getEnvelope().getDeliveryTag(), false);
+            return true;
+        });
+        return Boolean.TRUE.equals(replayed);
+    }
+}
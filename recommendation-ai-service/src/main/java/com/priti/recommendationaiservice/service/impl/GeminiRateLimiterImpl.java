@@ -0,0 +1,99 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.priti.recommendationaiservice.service.GeminiRateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Two token buckets matching the Gemini quota: requests per minute and tokens per minute.
+ * A caller reserves one request plus the estimated tokens of its prompt and is delayed until both
+ * buckets can cover the reservation. The delay is non-blocking, and because the listener only acks
+ * once its Mono completes, throttled activities simply stay unacked in RabbitMQ.
+ */
+@Service
+@Slf4j
+public class GeminiRateLimiterImpl implements GeminiRateLimiter {
+
+    private final double requestsPerMinute;
+    private final double tokensPerMinute;
+    private final int charsPerToken;
+    private final int expectedOutputTokens;
+    private final Timer throttleWaitTimer;
+
+    private double availableRequests;
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    public GeminiRateLimiterImpl(@Value("${gemini.api.rate-limit.requests-per-minute}") double requestsPerMinute,
+                                 @Value("${gemini.api.rate-limit.tokens-per-minute}") double tokensPerMinute,
+                                 @Value("${gemini.api.rate-limit.chars-per-token}") int charsPerToken,
+                                 @Value("${gemini.api.rate-limit.expected-output-tokens}") int expectedOutputTokens,
+                                 MeterRegistry meterRegistry) {
+        this.requestsPerMinute = requestsPerMinute;
+        this.tokensPerMinute = tokensPerMinute;
+        this.charsPerToken = charsPerToken;
+        this.expectedOutputTokens = expectedOutputTokens;
+        this.availableRequests = requestsPerMinute;
+        this.availableTokens = tokensPerMinute;
+        this.lastRefillNanos = System.nanoTime();
+        this.throttleWaitTimer = Timer.builder("gemini.ratelimit.wait")
+                .description("Time a Gemini call waited for request/token budget")
+                .register(meterRegistry);
+        Gauge.builder("gemini.ratelimit.requests.available", this, limiter -> limiter.snapshot()[0])
+                .description("Remaining request budget in the current minute window")
+                .register(meterRegistry);
+        Gauge.builder("gemini.ratelimit.tokens.available", this, limiter -> limiter.snapshot()[1])
+                .description("Remaining token budget in the current minute window")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> acquire(String prompt, int activityCount) {
+        return Mono.defer(() -> {
+            Duration wait = reserve(estimateTokens(prompt, activityCount));
+            throttleWaitTimer.record(wait);
+            if (wait.isZero()) {
+                return Mono.empty();
+            }
+            log.debug("Throttling Gemini call for {} ms", wait.toMillis());
+            return Mono.delay(wait).then();
+        });
+    }
+
+    // A batch prompt asks for one analysis per activity, so the expected answer grows with the batch
+    int estimateTokens(String prompt, int activityCount) {
+        int promptTokens = (prompt.length() + charsPerToken - 1) / charsPerToken;
+        long outputTokens = (long) expectedOutputTokens * Math.max(1, activityCount);
+        return (int) Math.min(promptTokens + outputTokens, (long) tokensPerMinute); // never wait for more than one full window
+    }
+
+    // Budgets may go negative; the deficit is how long this caller (and everyone after it) has to wait
+    private synchronized Duration reserve(int tokens) {
+        refill();
+        availableRequests -= 1;
+        availableTokens -= tokens;
+        double requestWaitMinutes = availableRequests < 0 ? -availableRequests / requestsPerMinute : 0;
+        double tokenWaitMinutes = availableTokens < 0 ? -availableTokens / tokensPerMinute : 0;
+        return Duration.ofNanos((long) (Math.max(requestWaitMinutes, tokenWaitMinutes) * 60_000_000_000L));
+    }
+
+    private synchronized double[] snapshot() {
+        refill();
+        return new double[] {availableRequests, availableTokens};
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedMinutes = (now - lastRefillNanos) / 60_000_000_000.0;
+        lastRefillNanos = now;
+        availableRequests = Math.min(requestsPerMinute, availableRequests + elapsedMinutes * requestsPerMinute);
+        availableTokens = Math.min(tokensPerMinute, availableTokens + elapsedMinutes * tokensPerMinute);
+    }
+}
@@ -0,0 +1,96 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.priti.recommendationaiservice.model.AiAnalysis;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Parses Gemini generateContent responses without building JSON trees: the envelope is streamed token by token
+ * down to {@code candidates[0].content.parts[0].text}, and the text is bound straight into {@link AiAnalysis}.
+ * Uses the application's shared ObjectMapper and pre-built readers, so nothing heavy is allocated per call.
+ */
+@Component
+public class GeminiResponseParser {
+
+    private static final String CODE_FENCE = "```";
+
+    private final JsonFactory jsonFactory;
+    private final ObjectReader analysisReader;
+    private final ObjectReader analysisListReader;
+
+    public GeminiResponseParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.analysisReader = objectMapper.readerFor(AiAnalysis.class);
+        this.analysisListReader = objectMapper.readerForListOf(AiAnalysis.class);
+    }
+
+    public AiAnalysis parseAnalysis(String aiResponse) throws IOException {
+        return analysisReader.readValue(extractText(aiResponse));
+    }
+
+    public List<AiAnalysis> parseAnalyses(String aiResponse) throws IOException {
+        return analysisListReader.readValue(extractText(aiResponse));
+    }
+
+    String extractText(String aiResponse) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(aiResponse)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "candidates") && moveToFirstElement(parser)
+                    && moveToField(parser, "content") && parser.currentToken() == JsonToken.START_OBJECT
+                    && moveToField(parser, "parts") && moveToFirstElement(parser)
+                    && moveToField(parser, "text") && parser.currentToken() == JsonToken.VALUE_STRING) {
+                return stripCodeFence(parser.getText());
+            }
+        }
+        throw new IOException("No candidates[0].content.parts[0].text in AI response");
+    }
+
+    // Leaves the parser on the value of the named field, skipping sibling values without materializing them
+    private static boolean moveToField(JsonParser parser, String fieldName) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            boolean match = fieldName.equals(parser.currentName());
+            parser.nextToken();
+            if (match) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    // Expects the parser on START_ARRAY and leaves it on the START_OBJECT of the first element
+    private static boolean moveToFirstElement(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.START_ARRAY && parser.nextToken() == JsonToken.START_OBJECT;
+    }
+
+    // Removes a leading ```json (or ```) line and a trailing ``` without regex or intermediate strings
+    static String stripCodeFence(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (text.startsWith(CODE_FENCE, start)) {
+            int newline = text.indexOf('\n', start);
+            start = newline < 0 || newline >= end ? end : newline + 1;
+        }
+        if (end - start >= CODE_FENCE.length() && text.startsWith(CODE_FENCE, end - CODE_FENCE.length())) {
+            end -= CODE_FENCE.length();
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+        }
+        return text.substring(start, end);
+    }
+}
@@ -1,32 +1,57 @@
 package com.priti.recommendationaiservice.service.impl;
 
+import com.priti.recommendationaiservice.exception.GeminiUnavailableException;
+import com.priti.recommendationaiservice.service.GeminiRateLimiter;
 import com.priti.recommendationaiservice.service.GeminiService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
-import java.lang.reflect.MalformedParameterizedTypeException;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
 public class GeminiServiceImpl implements GeminiService {
 
     private final WebClient webClient;
+    private final CircuitBreaker circuitBreaker;
+    private final GeminiRateLimiter geminiRateLimiter;
 
     @Value("${gemini.api.url}")
     private String geminiApiUrl;
     @Value("${gemini.api.key}")
     private String geminiApiKey;
+    @Value("${gemini.api.retry.max-attempts}")
+    private int retryMaxAttempts;
+    @Value("${gemini.api.retry.initial-backoff}")
+    private Duration retryInitialBackoff;
+    @Value("${gemini.api.retry.max-backoff}")
+    private Duration retryMaxBackoff;
+
+    public GeminiServiceImpl(WebClient geminiWebClient, CircuitBreaker geminiCircuitBreaker, GeminiRateLimiter geminiRateLimiter) {
+        this.webClient = geminiWebClient;
+        this.circuitBreaker = geminiCircuitBreaker;
+        this.geminiRateLimiter = geminiRateLimiter;
+    }
 
-    public GeminiServiceImpl(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
+    @Override
+    public Mono<String> getAnswer(String question) {
+        return getAnswer(question, 1);
     }
 
     @Override
-    public String getAnswer(String question) {
+    public Mono<String> getAnswer(String question, int activityCount) {
         Map<String, Object> requestBody = Map.of(
                 "contents", new Object[] {
                         Map.of("parts", new Object[] {
@@ -34,30 +59,32 @@ public class GeminiServiceImpl implements GeminiService {
                         })
                 });
 
-        String response = webClient.post()
+        Mono<String> call = webClient.post()
                 .uri(geminiApiUrl + geminiApiKey)
                 .header("Content-Type", "application/json")
                 .bodyValue(requestBody)
                 .retrieve()
-                .bodyToMono(String.class)
-                .block();
-
-
-//        String response = webClient.post()
-//                .uri(uriBuilder -> uriBuilder
-//                        .path(geminiApiUrl)
-//                        .queryParam("key", geminiApiKey)
-//                        .build())
-//                .header("Content-Type", "application/json")
-//                .bodyValue(requestBody)
-//                .retrieve()
-//                .onStatus( status -> status.isError(), clientResponse -> {
-//                    log.error("Error response from Gemini API: {}", clientResponse.statusCode());
-//                    return clientResponse.createException();
-//                })
-//                .bodyToMono(String.class)
-//                .block();
-
-        return response;
+                .bodyToMono(String.class);
+
+        // Every attempt, including retries, waits for request/token budget so bursts never turn into 429s
+        return geminiRateLimiter.acquire(question, activityCount).then(call)
+                .retryWhen(Retry.backoff(retryMaxAttempts, retryInitialBackoff)
+                        .maxBackoff(retryMaxBackoff)
+                        .filter(GeminiServiceImpl::isTransient)
+                        .doBeforeRetry(signal -> log.warn("Retrying Gemini call (attempt {}): {}",
+                                signal.totalRetries() + 1, signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker)) // one breaker outcome per logical call, after retries
+                .onErrorMap(error -> error instanceof CallNotPermittedException || isTransient(error),
+                        error -> new GeminiUnavailableException("Gemini API unavailable: " + error.getMessage(), error));
+    }
+
+    // 429 and 5xx responses, timeouts and connection failures are worth retrying; other 4xx are not
+    public static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS
+                    || responseException.getStatusCode().is5xxServerError();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
     }
 }
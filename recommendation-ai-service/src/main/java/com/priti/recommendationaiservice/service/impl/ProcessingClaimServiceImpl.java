@@ -0,0 +1,66 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.priti.recommendationaiservice.model.ProcessingClaim;
+import com.priti.recommendationaiservice.service.ProcessingClaimService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// In-flight dedup: a local set catches redeliveries on this instance without a round trip,
+// a Mongo lease catches duplicates consumed by other instances
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessingClaimServiceImpl implements ProcessingClaimService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${recommendation.dedup.lease}")
+    private Duration lease;
+
+    @Override
+    public boolean tryClaim(String activityId) {
+        if (!inFlight.add(activityId)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            // Matches only a missing or expired lease; a live lease makes the upsert's insert hit the _id index
+            mongoTemplate.upsert(query(where("_id").is(activityId).and("expiresAt").lt(now)),
+                    new Update().set("owner", owner).set("expiresAt", now.plus(lease)),
+                    ProcessingClaim.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            inFlight.remove(activityId);
+            return false;
+        } catch (Exception e) {
+            log.warn("Could not take processing lease for activity {}, continuing with the local claim only: {}", activityId, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String activityId) {
+        inFlight.remove(activityId);
+        try {
+            mongoTemplate.remove(query(where("_id").is(activityId).and("owner").is(owner)), ProcessingClaim.class);
+        } catch (Exception e) {
+            log.warn("Could not release processing lease for activity {}, it will expire: {}", activityId, e.getMessage());
+        }
+    }
+}
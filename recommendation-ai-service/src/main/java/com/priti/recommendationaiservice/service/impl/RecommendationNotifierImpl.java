@@ -0,0 +1,50 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.priti.recommendationaiservice.model.Recommendation;
+import com.priti.recommendationaiservice.service.RecommendationNotifier;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Parks requests waiting for a recommendation; every waiter for the same activity shares one sink
+@Service
+public class RecommendationNotifierImpl implements RecommendationNotifier {
+
+    private record Waiter(Sinks.One<Recommendation> sink, AtomicInteger subscribers) {}
+
+    private final ConcurrentHashMap<String, Waiter> waiters = new ConcurrentHashMap<>();
+
+    public RecommendationNotifierImpl(MeterRegistry meterRegistry) {
+        Gauge.builder("recommendation.push.waiting", waiters, ConcurrentHashMap::size)
+                .description("Activities with at least one request waiting for their recommendation")
+                .register(meterRegistry);
+    }
+
+    // Registers on subscribe and unregisters on completion, timeout or client disconnect
+    @Override
+    public Mono<Recommendation> await(String activityId) {
+        return Mono.defer(() -> {
+            Waiter waiter = waiters.compute(activityId, (id, existing) -> {
+                Waiter current = existing != null ? existing : new Waiter(Sinks.one(), new AtomicInteger());
+                current.subscribers().incrementAndGet();
+                return current;
+            });
+            return waiter.sink().asMono()
+                    .doFinally(signal -> waiters.computeIfPresent(activityId, (id, current) ->
+                            current == waiter && current.subscribers().decrementAndGet() == 0 ? null : current));
+        });
+    }
+
+    @Override
+    public void publish(Recommendation recommendation) {
+        Waiter waiter = waiters.get(recommendation.getActivityId());
+        if (waiter != null) {
+            waiter.sink().tryEmitValue(recommendation); // a second notification for the same activity is simply dropped
+        }
+    }
+}
@@ -1,26 +1,165 @@
 package com.priti.recommendationaiservice.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.priti.recommendationaiservice.dto.RecommendationPageDTO;
+import com.priti.recommendationaiservice.dto.RecommendationSummaryDTO;
 import com.priti.recommendationaiservice.model.Recommendation;
+import com.priti.recommendationaiservice.repository.RecommendationCursor;
 import com.priti.recommendationaiservice.repository.RecommendationRepository;
+import com.priti.recommendationaiservice.service.RecommendationNotifier;
+import com.priti.recommendationaiservice.service.RecommendationRemoteCache;
 import com.priti.recommendationaiservice.service.RecommendationService;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RecommendationServiceImpl implements RecommendationService {
     private final RecommendationRepository recommendationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Recommendation> recommendationCache;
+    private final Cache<String, List<Recommendation>> userRecommendationsCache;
+    private final RecommendationRemoteCache remoteCache; // null unless a remote tier is configured
+    private final RecommendationNotifier recommendationNotifier;
+
+    @Value("${recommendation.push.timeout}")
+    private Duration defaultAwaitTimeout;
+    @Value("${recommendation.push.max-timeout}")
+    private Duration maxAwaitTimeout;
+    @Value("${recommendation.page.default-limit}")
+    private int pageDefaultLimit;
+    @Value("${recommendation.page.max-limit}")
+    private int pageMaxLimit;
+    @Value("${recommendation.page.headline-length}")
+    private int headlineLength;
+
+    public RecommendationServiceImpl(RecommendationRepository recommendationRepository,
+                                     MongoTemplate mongoTemplate,
+                                     Cache<String, Recommendation> recommendationCache,
+                                     Cache<String, List<Recommendation>> userRecommendationsCache,
+                                     ObjectProvider<RecommendationRemoteCache> remoteCache,
+                                     RecommendationNotifier recommendationNotifier) {
+        this.recommendationRepository = recommendationRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.recommendationCache = recommendationCache;
+        this.userRecommendationsCache = userRecommendationsCache;
+        this.remoteCache = remoteCache.getIfAvailable();
+        this.recommendationNotifier = recommendationNotifier;
+    }
 
     @Override
     public List<Recommendation> getUserRecommendation(String userId) {
-        return recommendationRepository.findByUserId(userId);
+        return userRecommendationsCache.get(userId, id -> List.copyOf(recommendationRepository.findByUserId(id)));
+    }
+
+    @Override
+    public RecommendationPageDTO getUserRecommendationSummaries(String userId, String after, Integer limit) {
+        int pageLimit = limit == null ? pageDefaultLimit : Math.clamp(limit, 1, pageMaxLimit);
+        RecommendationCursor cursor = after == null ? null : RecommendationCursor.decode(after);
+
+        // One extra row tells us whether another page exists without a count query
+        List<RecommendationSummaryDTO> summaries = recommendationRepository.findUserRecommendationSummaries(userId, cursor, pageLimit + 1, headlineLength);
+        String nextCursor = null;
+        if (summaries.size() > pageLimit) {
+            summaries = summaries.subList(0, pageLimit);
+            nextCursor = RecommendationCursor.of(summaries.get(pageLimit - 1)).encode();
+        }
+        return new RecommendationPageDTO(summaries, nextCursor);
     }
 
+    // Read-through: in-process cache, then the remote tier, then Mongo. Misses are not cached because
+    // the recommendation usually shows up moments after the activity is tracked.
     @Override
     public Recommendation getActivityRecommendation(String activityId) {
-        return recommendationRepository.findByActivityId(activityId)
+        return findActivityRecommendation(activityId)
                 .orElseThrow(() -> new RuntimeException("No recommendation found for activity ID: " + activityId));
     }
+
+    @Override
+    public boolean hasActivityRecommendation(String activityId) {
+        return recommendationCache.getIfPresent(activityId) != null || recommendationRepository.existsByActivityId(activityId);
+    }
+
+    private Optional<Recommendation> findActivityRecommendation(String activityId) {
+        Recommendation cached = recommendationCache.getIfPresent(activityId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Recommendation> recommendation = getRemote(activityId)
+                .or(() -> recommendationRepository.findByActivityId(activityId).map(this::putRemote));
+        recommendation.ifPresent(found -> recommendationCache.put(activityId, found));
+        return recommendation;
+    }
+
+    // Completes as soon as the recommendation exists, or empty after the timeout. The waiter is registered
+    // before the store lookup, so a recommendation saved in between is not missed.
+    @Override
+    public Mono<Recommendation> awaitActivityRecommendation(String activityId, Duration timeout) {
+        Duration awaitTimeout = timeout == null ? defaultAwaitTimeout
+                : timeout.compareTo(maxAwaitTimeout) > 0 ? maxAwaitTimeout : timeout;
+        Mono<Recommendation> stored = Mono.fromCallable(() -> findActivityRecommendation(activityId).orElse(null))
+                .subscribeOn(Schedulers.boundedElastic());
+        return Mono.firstWithValue(recommendationNotifier.await(activityId), stored)
+                .timeout(awaitTimeout, Mono.empty());
+    }
+
+    // Write path used by the activity listener: upsert on activityId (unique), then populate the caches so the
+    // first page load is a hit. A regenerated recommendation replaces the old one for the same activity everywhere.
+    @Override
+    public Recommendation saveRecommendation(Recommendation recommendation) {
+        Recommendation saved = mongoTemplate.findAndReplace(
+                query(where("activityId").is(recommendation.getActivityId())),
+                recommendation,
+                FindAndReplaceOptions.options().upsert().returnNew());
+        recommendationCache.put(saved.getActivityId(), saved);
+        putRemote(saved);
+        userRecommendationsCache.asMap().computeIfPresent(saved.getUserId(), (userId, recommendations) -> {
+            List<Recommendation> updated = new ArrayList<>(recommendations.size() + 1);
+            recommendations.stream()
+                    .filter(existing -> !Objects.equals(existing.getActivityId(), saved.getActivityId()))
+                    .forEach(updated::add);
+            updated.add(saved);
+            return List.copyOf(updated);
+        });
+        recommendationNotifier.publish(saved); // wakes requests parked on this instance; others hear it via the change stream
+        return saved;
+    }
+
+    private Optional<Recommendation> getRemote(String activityId) {
+        if (remoteCache == null) {
+            return Optional.empty();
+        }
+        try {
+            return remoteCache.getByActivityId(activityId);
+        } catch (Exception e) {
+            log.warn("Remote recommendation cache read failed for activity {}: {}", activityId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Recommendation putRemote(Recommendation recommendation) {
+        if (remoteCache != null) {
+            try {
+                remoteCache.put(recommendation);
+            } catch (Exception e) {
+                log.warn("Remote recommendation cache write failed for activity {}: {}", recommendation.getActivityId(), e.getMessage());
+            }
+        }
+        return recommendation;
+    }
 }
@@ -0,0 +1,139 @@
+package com.priti.recommendationaiservice.benchmark;
+
+import com.priti.recommendationaiservice.converter.ActivityBinaryMessageConverter;
+import com.priti.recommendationaiservice.model.Activity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and binary wire formats of an activity event: encode and decode throughput, plus the
+ * bytes per message (body and headers), which are printed once per trial.
+ * Not a unit test: run {@link #main} from the test classpath after {@code mvn test-compile}, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main ActivityWireFormatBenchmark -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivityWireFormatBenchmark {
+
+    // plain: a manually logged activity; series: a 45 minute run with heart rate, pace and cadence every 10 seconds
+    @Param({"plain", "series"})
+    private String shape;
+
+    private Jackson2JsonMessageConverter jsonConverter;
+    private ActivityBinaryMessageConverter binaryConverter;
+    private Activity activity;
+    private Message jsonMessage;
+    private Message binaryMessage;
+
+    @Setup
+    public void setUp() {
+        jsonConverter = new Jackson2JsonMessageConverter();
+        binaryConverter = new ActivityBinaryMessageConverter();
+        activity = sampleActivity("series".equals(shape));
+
+        jsonMessage = jsonEncode();
+        binaryMessage = binaryEncode();
+        if (!activity.equals(jsonDecode()) || !activity.equals(binaryDecode())) {
+            throw new IllegalStateException("Wire formats do not round-trip the sample activity");
+        }
+        System.out.printf("%n[%s] bytes/message: json body=%d headers=%d, binary body=%d headers=%d%n", shape,
+                jsonMessage.getBody().length, headerBytes(jsonMessage),
+                binaryMessage.getBody().length, headerBytes(binaryMessage));
+    }
+
+    private static Activity sampleActivity(boolean withSeries) {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 14, 7, 30, 12);
+        Activity activity = new Activity();
+        activity.setId("6650f1c2a4b7e93d1c2f8a41");
+        activity.setUserId("3f2b8c1e-7d4a-4e9b-a1c6-5d8e2f9b0a17");
+        activity.setType("RUNNING");
+        activity.setDuration(45);
+        activity.setCaloriesBurned(520);
+        activity.setStartTime(start);
+        activity.setCreatedAt(start.plusMinutes(46));
+        activity.setUpdatedAt(start.plusMinutes(46));
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("distance", 8.4);
+        metrics.put("elevationGain", 112);
+        if (withSeries) {
+            List<Number> heartRate = new ArrayList<>();
+            List<Number> pace = new ArrayList<>();
+            List<Number> cadence = new ArrayList<>();
+            for (int i = 0; i < 270; i++) {
+                heartRate.add(128 + (i * 7) % 41);
+                pace.add(5.25 + ((i * 13) % 32) / 64.0);
+                cadence.add(164 + (i * 3) % 12);
+            }
+            metrics.put("heartRate", heartRate);
+            metrics.put("pace", pace);
+            metrics.put("cadence", cadence);
+        }
+        activity.setAdditionalMetrics(metrics);
+        return activity;
+    }
+
+    private static int headerBytes(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        int bytes = properties.getContentType() == null ? 0 : properties.getContentType().length();
+        bytes += properties.getContentEncoding() == null ? 0 : properties.getContentEncoding().length();
+        for (Map.Entry<String, Object> header : properties.getHeaders().entrySet()) {
+            bytes += header.getKey().getBytes(StandardCharsets.UTF_8).length + String.valueOf(header.getValue()).length();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public Message jsonEncode() {
+        return jsonConverter.toMessage(activity, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message binaryEncode() {
+        return binaryConverter.toMessage(activity, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return jsonConverter.fromMessage(jsonMessage);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return binaryConverter.fromMessage(binaryMessage);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ActivityWireFormatBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.priti.recommendationaiservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priti.recommendationaiservice.model.AiAnalysis;
+import com.priti.recommendationaiservice.service.impl.GeminiResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous tree-based parsing of Gemini responses with the streaming GeminiResponseParser.
+ * Not a unit test: run {@link #main} from the test classpath after {@code mvn test-compile}, or
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main GeminiResponseParserBenchmark -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiResponseParserBenchmark {
+
+    private static final String ANALYSIS_JSON = """
+            ```json
+            {
+              "analysis": {
+                "overall": "A steady 30 minute walk at a comfortable intensity.",
+                "pace": "Pace was consistent throughout the session.",
+                "heartRate": "Heart rate stayed in the aerobic zone.",
+                "caloriesBurned": "150 kcal is in line with the duration and intensity."
+              },
+              "improvements": [
+                {"area": "Intensity", "recommendation": "Add short brisk intervals to raise your heart rate."},
+                {"area": "Duration", "recommendation": "Extend the walk by 5 minutes each week."}
+              ],
+              "suggestions": [
+                {"workout": "Interval walk", "description": "Alternate 2 minutes brisk and 2 minutes easy for 30 minutes."},
+                {"workout": "Hill walk", "description": "Find a route with gentle inclines to build leg strength."}
+              ],
+              "safety": [
+                "Stay hydrated before and after the walk.",
+                "Wear supportive footwear."
+              ]
+            }
+            ```""";
+
+    private String aiResponse;
+    private GeminiResponseParser parser;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper sharedMapper = new ObjectMapper();
+        aiResponse = sharedMapper.writeValueAsString(Map.of(
+                "candidates", new Object[] {
+                        Map.of("content", Map.of(
+                                        "parts", new Object[] {Map.of("text", ANALYSIS_JSON)},
+                                        "role", "model"),
+                                "finishReason", "STOP",
+                                "index", 0)
+                },
+                "usageMetadata", Map.of("promptTokenCount", 412, "candidatesTokenCount", 380, "totalTokenCount", 792),
+                "modelVersion", "gemini-2.0-flash"));
+        parser = new GeminiResponseParser(sharedMapper);
+
+        if (!legacyTreeParsing().equals(streamingParsing().analysis().overall())) {
+            throw new IllegalStateException("Parsers disagree on the sample response");
+        }
+    }
+
+    // The pre-streaming implementation: a new ObjectMapper, two trees and two regex passes per response
+    @Benchmark
+    public String legacyTreeParsing() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode rootNode = objectMapper.readTree(aiResponse);
+        JsonNode textNode = rootNode.path("candidates")
+                .get(0)
+                .path("content")
+                .path("parts")
+                .get(0)
+                .path("text");
+        String jsonContent = textNode.asText()
+                .replaceAll("```json\\n", "")
+                .replaceAll("\\n```", "")
+                .trim();
+        JsonNode analysisJson = objectMapper.readTree(jsonContent);
+        return analysisJson.path("analysis").path("overall").asText();
+    }
+
+    @Benchmark
+    public AiAnalysis streamingParsing() throws Exception {
+        return parser.parseAnalysis(aiResponse);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeminiResponseParserBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.priti.recommendationaiservice.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.priti.recommendationaiservice.model.Activity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The binary format must hand the listener the same values, with the same types, as the JSON one
+class ActivityBinaryCodecTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Test
+    void decodesWhatJsonDecodes() throws Exception {
+        Activity activity = sampleActivity();
+
+        Activity fromBinary = ActivityBinaryCodec.decode(ActivityBinaryCodec.encode(activity));
+        Activity fromJson = objectMapper.readValue(objectMapper.writeValueAsBytes(activity), Activity.class);
+
+        assertEquals(fromJson, fromBinary);
+    }
+
+    @Test
+    void keepsWholeDecimalsAsDoubles() {
+        Map<String, Object> metrics = ActivityBinaryCodec.decode(ActivityBinaryCodec.encode(sampleActivity())).getAdditionalMetrics();
+
+        assertEquals(5.0, metrics.get("avgSpeed"));
+        assertEquals(List.of(5.0, 5.5, 6.0), metrics.get("speeds"));
+        assertEquals(List.of(5, 5.5), metrics.get("splits"));
+        assertEquals(3_000_000_000L, metrics.get("steps"));
+    }
+
+    private static Activity sampleActivity() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("distance", 8.4);
+        metrics.put("elevationGain", 112);
+        metrics.put("avgSpeed", 5.0);
+        metrics.put("steps", 3_000_000_000L);
+        metrics.put("speeds", List.of(5.0, 5.5, 6.0));
+        metrics.put("splits", List.of(5, 5.5));
+        metrics.put("route", Map.of("name", "river loop", "laps", 3));
+        List<Object> heartRate = new ArrayList<>();
+        List<Object> pace = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            heartRate.add(128 + i % 7);
+            pace.add(5.2 + (i % 5) / 10.0);
+        }
+        metrics.put("heartRate", heartRate);
+        metrics.put("pace", pace);
+
+        LocalDateTime start = LocalDateTime.of(2025, 6, 14, 7, 30, 12);
+        Activity activity = new Activity();
+        activity.setId("6650f1c2a4b7e93d1c2f8a41");
+        activity.setUserId("3f2b8c1e-7d4a-4e9b-a1c6-5d8e2f9b0a17");
+        activity.setType("RUNNING");
+        activity.setDuration(45);
+        activity.setCaloriesBurned(520);
+        activity.setStartTime(start);
+        activity.setAdditionalMetrics(metrics);
+        activity.setCreatedAt(start.plusMinutes(46));
+        activity.setUpdatedAt(start.plusMinutes(46));
+        return activity;
+    }
+}
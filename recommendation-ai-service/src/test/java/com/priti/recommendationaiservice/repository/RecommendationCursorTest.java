@@ -0,0 +1,34 @@
+package com.priti.recommendationaiservice.repository;
+
+import com.priti.recommendationaiservice.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecommendationCursorTest {
+
+    @Test
+    void roundTrips() {
+        RecommendationCursor cursor = new RecommendationCursor(LocalDateTime.of(2025, 3, 14, 7, 30, 15, 123_456_789), "65f2a1c9e4b0a1b2c3d4e5f6");
+
+        assertEquals(cursor, RecommendationCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void roundTripsWithoutCreatedAt() {
+        RecommendationCursor cursor = new RecommendationCursor(null, "65f2a1c9e4b0a1b2c3d4e5f6");
+
+        assertEquals(cursor, RecommendationCursor.decode(cursor.encode()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "", "bm8tc2VwYXJhdG9y", "bm90LWEtZGF0ZXwxMjM"})
+    void rejectsMalformedToken(String token) {
+        assertThrows(InvalidRequestException.class, () -> RecommendationCursor.decode(token));
+    }
+}
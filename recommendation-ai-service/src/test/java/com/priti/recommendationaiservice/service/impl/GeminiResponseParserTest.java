@@ -0,0 +1,85 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.priti.recommendationaiservice.model.AiAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeminiResponseParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GeminiResponseParser parser = new GeminiResponseParser(objectMapper);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '\'', value = {
+            "'{\"a\":1}'                         | '{\"a\":1}'",
+            "'```json\n{\"a\":1}\n```'           | '{\"a\":1}'",
+            "'```\n{\"a\":1}\n```'               | '{\"a\":1}'",
+            "'  \n```json\n{\"a\":1}\n```  \n'   | '{\"a\":1}'",
+            "'```json\n{\"a\":1}'                | '{\"a\":1}'",
+            "'{\"a\":1}\n```'                    | '{\"a\":1}'",
+            "'```json\r\n{\"a\":1}\r\n```'       | '{\"a\":1}'",
+            "'```'                               | ''",
+            "'```json'                           | ''",
+            "'   '                               | ''",
+    })
+    void stripsCodeFence(String text, String expected) {
+        assertEquals(expected, GeminiResponseParser.stripCodeFence(unescape(text)));
+    }
+
+    @Test
+    void keepsBackticksInsideTheJson() {
+        String text = "```json\n{\"description\":\"use ``` here\"}\n```";
+
+        assertEquals("{\"description\":\"use ``` here\"}", GeminiResponseParser.stripCodeFence(text));
+    }
+
+    @Test
+    void parsesAnalysisFromFirstCandidate() throws IOException {
+        String analysis = """
+                ```json
+                {"analysis": {"overall": "Solid run", "pace": "Even"}, "safety": ["Hydrate"], "extra": 1}
+                ```""";
+
+        AiAnalysis parsed = parser.parseAnalysis(envelope(analysis));
+
+        assertEquals("Solid run", parsed.analysis().overall());
+        assertEquals("Even", parsed.analysis().pace());
+        assertEquals(List.of("Hydrate"), parsed.safety());
+    }
+
+    @Test
+    void parsesBatchAnalyses() throws IOException {
+        String analyses = "[{\"activityId\": \"a1\"}, {\"activityId\": \"a2\"}]";
+
+        List<AiAnalysis> parsed = parser.parseAnalyses(envelope(analyses));
+
+        assertEquals(List.of("a1", "a2"), parsed.stream().map(AiAnalysis::activityId).toList());
+    }
+
+    @Test
+    void rejectsResponseWithoutText() {
+        assertThrows(IOException.class, () -> parser.parseAnalysis("{\"candidates\": []}"));
+        assertThrows(IOException.class, () -> parser.parseAnalysis("{\"promptFeedback\": {\"blockReason\": \"SAFETY\"}}"));
+    }
+
+    // Sibling fields before the path, including nested ones, are skipped rather than mistaken for it
+    private String envelope(String text) throws IOException {
+        return """
+                {"modelVersion": "gemini", "usageMetadata": {"text": "not this"},
+                 "candidates": [{"finishReason": "STOP", "content": {"role": "model", "parts": [{"text": %s}, {"text": "second"}]}},
+                                {"content": {"parts": [{"text": "other candidate"}]}}]}
+                """.formatted(objectMapper.writeValueAsString(text));
+    }
+
+    private static String unescape(String text) {
+        return text.replace("\\n", "\n").replace("\\r", "\r");
+    }
+}
@@ -0,0 +1,95 @@
+package com.priti.recommendationaiservice.service.impl;
+
+import com.priti.recommendationaiservice.model.Recommendation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecommendationNotifierImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecommendationNotifierImpl notifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notifier = new RecommendationNotifierImpl(meterRegistry);
+    }
+
+    @Test
+    void deliversToEveryWaiterForTheActivity() {
+        Recommendation recommendation = Recommendation.builder().activityId("a1").build();
+        Mono<Recommendation> first = notifier.await("a1");
+        Mono<Recommendation> second = notifier.await("a1");
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> notifier.publish(recommendation))
+                .assertNext(both -> {
+                    assertEquals(recommendation, both.getT1());
+                    assertEquals(recommendation, both.getT2());
+                })
+                .verifyComplete();
+        assertEquals(0, waiting());
+    }
+
+    @Test
+    void ignoresRecommendationsForOtherActivities() {
+        StepVerifier.create(notifier.await("a1"))
+                .then(() -> notifier.publish(Recommendation.builder().activityId("a2").build()))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void publishWithoutWaitersIsDropped() {
+        notifier.publish(Recommendation.builder().activityId("a1").build());
+
+        StepVerifier.create(notifier.await("a1"))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenCancel()
+                .verify();
+        assertEquals(0, waiting());
+    }
+
+    // A disconnected or timed-out client must not keep the activity registered while others still wait
+    @Test
+    void unregistersOnlyWhenTheLastWaiterLeaves() {
+        Disposable first = notifier.await("a1").subscribe();
+        Disposable second = notifier.await("a1").subscribe();
+        assertEquals(1, waiting());
+
+        first.dispose();
+        assertEquals(1, waiting());
+
+        second.dispose();
+        assertEquals(0, waiting());
+    }
+
+    @Test
+    void registersAgainAfterTimeout() {
+        StepVerifier.create(notifier.await("a1").timeout(Duration.ofMillis(50)))
+                .expectError(TimeoutException.class)
+                .verify();
+        assertEquals(0, waiting());
+
+        Recommendation recommendation = Recommendation.builder().activityId("a1").build();
+        StepVerifier.create(notifier.await("a1"))
+                .then(() -> notifier.publish(recommendation))
+                .expectNext(recommendation)
+                .verifyComplete();
+    }
+
+    private double waiting() {
+        return meterRegistry.get("recommendation.push.waiting").gauge().value();
+    }
+}
@@ -9,7 +9,8 @@ import {
   Stack,
   Paper,
   Fade,
-  Skeleton
+  Skeleton,
+  Button
 } from '@mui/material';
 import { 
   DirectionsRun,
@@ -29,6 +30,8 @@ import { getActivities } from '../services/api.js';
 const ActivityList = () => {
     const [activities, setActivities] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const navigate = useNavigate();
 
     const fetchActivities = async () => {
@@ -36,6 +39,7 @@ const ActivityList = () => {
         try {
             const response = await getActivities();
             setActivities(response.data);
+            setNextCursor(response.headers["x-next-cursor"] || null);
         } catch (error) {
             console.error("Error fetching activities:", error);
         } finally {
@@ -43,6 +47,20 @@ const ActivityList = () => {
         }
     }
 
+    // Older activities are fetched one page at a time, only when asked for; a failed page (e.g. 429) can be retried
+    const loadMoreActivities = async () => {
+        setLoadingMore(true);
+        try {
+            const response = await getActivities(nextCursor);
+            setActivities((previous) => [...previous, ...response.data]);
+            setNextCursor(response.headers["x-next-cursor"] || null);
+        } catch (error) {
+            console.error("Error fetching more activities:", error);
+        } finally {
+            setLoadingMore(false);
+        }
+    }
+
     useEffect(() => {
         fetchActivities();
     }, []);
@@ -118,7 +136,7 @@ const ActivityList = () => {
                     Activity Timeline
                 </Typography>
                 <Typography variant="body1" sx={{ color: 'rgba(255,255,255,0.7)' }}>
-                    {activities.length} workouts completed
+                    {activities.length}{nextCursor ? '+' : ''} workouts completed
                 </Typography>
             </Box>
 
@@ -313,6 +331,19 @@ const ActivityList = () => {
                     })}
                 </Grid>
             )}
+
+            {nextCursor && (
+                <Box sx={{ textAlign: 'center', mt: 3 }}>
+                    <Button
+                        variant="contained"
+                        onClick={loadMoreActivities}
+                        disabled={loadingMore}
+                        sx={{ borderRadius: 3, background: 'linear-gradient(135deg, #667eea, #764ba2)' }}
+                    >
+                        {loadingMore ? 'Loading...' : 'Load more'}
+                    </Button>
+                </Box>
+            )}
         </Box>
     );
 }
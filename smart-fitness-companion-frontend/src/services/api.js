@@ -20,7 +20,8 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
-export const getActivities = () => api.get("/activities");
+// One page, newest first; pass the previous page's X-Next-Cursor header as after to get the next one
+export const getActivities = (after) => api.get("/activities", { params: { after } });
 export const addActivity = (activity) => api.post("/activities", activity);
 export const getActivityDetail = (id) =>
   api.get(`/recommendations/activity/${id}`);
@@ -0,0 +1,25 @@
+package com.priti.userservice.config;
+
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMqConfig {
+    @Value("${rabbitmq.user.exchange.name}")
+    private String userExchange;
+
+    // Fanout so that every interested service instance gets its own copy of user lifecycle events (e.g. to drop cached validations)
+    @Bean
+    public FanoutExchange userEventsExchange() {
+        return new FanoutExchange(userExchange);
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
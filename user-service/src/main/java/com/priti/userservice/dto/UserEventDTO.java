@@ -0,0 +1,17 @@
+package com.priti.userservice.dto;
+
+import com.priti.userservice.model.UserEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserEventDTO {
+    private String userId; // keycloakId, the same id other services validate against
+    private UserEventType eventType;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,5 @@
+package com.priti.userservice.model;
+
+public enum UserEventType {
+    REGISTERED
+}
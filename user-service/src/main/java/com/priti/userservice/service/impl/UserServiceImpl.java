@@ -1,20 +1,30 @@
 package com.priti.userservice.service.impl;
 
+import com.priti.userservice.dto.UserEventDTO;
 import com.priti.userservice.dto.UserRequestDTO;
 import com.priti.userservice.dto.UserResponseDTO;
 import com.priti.userservice.model.User;
+import com.priti.userservice.model.UserEventType;
 import com.priti.userservice.repository.UserRepository;
 import com.priti.userservice.service.UserService;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-@AllArgsConstructor
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
 @Service
 @Slf4j
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.user.exchange.name}")
+    private String userExchange;
 
     @Override
     public UserResponseDTO getUserResponse(User user) {
@@ -53,6 +63,7 @@ public class UserServiceImpl implements UserService {
         user.setLastName(userRequestDTO.getLastName());
 
         User savedUser = userRepository.save(user);
+        publishUserEvent(savedUser.getKeycloakId(), UserEventType.REGISTERED);
         return getUserResponse(savedUser);
     }
 
@@ -61,4 +72,16 @@ public class UserServiceImpl implements UserService {
         log.info("Calling user Validation API for userId: {}", userId);
         return userRepository.existsByKeycloakId(userId);
     }
+
+    private void publishUserEvent(String userId, UserEventType eventType) {
+        if (userId == null) {
+            return;
+        }
+        // Consumers (e.g. activity-service validation cache) use this to drop stale entries for the user
+        try {
+            rabbitTemplate.convertAndSend(userExchange, "", new UserEventDTO(userId, eventType, LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Failed to publish {} event for userId: {}", eventType, userId, e);
+        }
+    }
 }